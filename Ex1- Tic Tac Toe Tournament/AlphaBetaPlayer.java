@@ -0,0 +1,480 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * class AlphaBetaPlayer represents a player that searches the game tree before every move.
+ * It runs an iterative-deepening negamax search with alpha-beta pruning, a transposition table and
+ move ordering (the transposition table move first, then the history of
+ moves that caused cutoffs), until the time or node budget of the move runs out.
+ * The search works on the board of the game itself with push and pop, so it scales
+ with the size and the win streak of the game: the moves come from the candidate cells of the board
+ (the cells around the marks on a SparseBoard), and the evaluation is counted once a turn from the
+ marks on the board and then updated by every move with the windows through its cell, so a node
+ costs the same on any board size. The budget is checked on every node.
+ * The transposition table is keyed by the PositionKey of the position, which is the same for all
+ of its rotations and reflections, and it is shared by all the AlphaBetaPlayers that play the same
+ size and win streak, so later games of a tournament reuse the searches of the earlier ones.
+ */
+public class AlphaBetaPlayer implements Player {
+    /**
+     * The AlphaBetaPlayer constants
+     */
+    private static final long DEFAULT_MOVE_TIME_MILLIS = 50;
+    private static final long UNLIMITED_NODES = 0;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int WIN_SCORE = 1_000_000;
+    private static final int MAX_PLY = 1024;
+    private static final int DRAW_SCORE = 0;
+    private static final int SEARCH_ALL_CELLS_SIZE = 5;
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int FLAG_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final long DEPTH_MASK = 0xFF;
+    private static final long FLAG_MASK = 0x3;
+    private static final int TT_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private static final LongAdder searchedNodes = new LongAdder();
+    private static final LongAdder searchNanos = new LongAdder();
+    private final long moveTimeNanos;
+    private final long nodeBudget;
+    private int size = -1;
+    private int winStreak = -1;
+    private PositionKey positionKey;
+    private TranspositionTable table;
+    private int[] history;
+    private int[][] moves;
+    private int[][] moveScores;
+    private long[] windowWeights;
+    private long evaluation;   // the windows of the position, from the point of view of X
+    private Board board;
+    private long nodes;
+    private int rootMove;
+    private long deadline;
+    private boolean aborted;
+
+    /**
+     * A default constructor for AlphaBetaPlayer, which searches for a fixed time on every move.
+     */
+    public AlphaBetaPlayer() {
+        this(DEFAULT_MOVE_TIME_MILLIS, UNLIMITED_NODES);
+    }
+
+    /**
+     * A constructor for AlphaBetaPlayer with the budget of every move.
+     * @param moveTimeMillis - the time to search on every move, in milliseconds.
+     * @param nodeBudget - the most nodes to search on every move, or 0 for no limit.
+     */
+    public AlphaBetaPlayer(long moveTimeMillis, long nodeBudget) {
+        this.moveTimeNanos = moveTimeMillis * NANOS_PER_MILLI;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Returns the number of nodes searched by all the AlphaBetaPlayers so far.
+     * @return the number of searched nodes.
+     */
+    public static long getSearchedNodes() {
+        return searchedNodes.sum();
+    }
+
+    /**
+     * Returns the search throughput of all the AlphaBetaPlayers so far.
+     * @return the nodes searched per second of search time.
+     */
+    public static long getNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : searchedNodes.sum() * NANOS_PER_SECOND / nanos;
+    }
+
+    /**
+     * The playTurn function searches deeper and deeper until the budget runs out and puts the mark
+     on the best cell found by the last finished search.
+     * @param board - the board
+     * @param mark - the mark to put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        long start = System.nanoTime();
+        prepare(board);
+        this.nodes = 0;
+        this.deadline = start + this.moveTimeNanos;
+        this.aborted = false;
+        int empty = board.getFreeCount();
+        this.positionKey.reset(board);
+        this.evaluation = evaluateBoard();
+        int bestMove = -1;
+        for (int depth = 1; depth <= Math.min(empty, MAX_PLY); depth++) {
+            int score = negamax(depth, -WIN_SCORE - 1, WIN_SCORE + 1, 0, mark, empty);
+            if (this.aborted) {
+                break;
+            }
+            bestMove = this.rootMove;
+            // a proven result can not change by searching deeper
+            if (Math.abs(score) > WIN_SCORE - MAX_PLY) {
+                break;
+            }
+        }
+        searchedNodes.add(this.nodes);
+        searchNanos.add(System.nanoTime() - start);
+        if (bestMove < 0 || !board.putMark(mark, bestMove / this.size, bestMove % this.size)) {
+            playFirstEmpty(board, mark);
+        }
+    }
+
+    /**
+     * Prepares the tables of the search for the size and win streak of the board, keeping them
+     between moves and games of the same kind.
+     * @param board - the board of the game
+     */
+    private void prepare(Board board) {
+        this.board = board;
+        if (board.getSize() == this.size && board.getWinStreak() == this.winStreak) {
+            return;
+        }
+        this.size = board.getSize();
+        this.winStreak = board.getWinStreak();
+        int cells = this.size * this.size;
+        this.positionKey = new PositionKey(this.size);
+        this.table = TranspositionTable.shared(this.size, this.winStreak);
+        this.history = new int[cells];
+        // the move lists of every ply are allocated, and grown, when the search reaches it
+        int maxDepth = Math.min(cells, MAX_PLY) + 1;
+        this.moves = new int[maxDepth][];
+        this.moveScores = new int[maxDepth][];
+        this.windowWeights = new long[this.winStreak + 1];
+        for (int count = 1; count <= this.winStreak; count++) {
+            this.windowWeights[count] = 1L << Math.min(2 * count, Long.SIZE - 2);
+        }
+    }
+
+    /**
+     * The negamax search with alpha-beta pruning. The score is from the point of view of the player
+     to move, wins are scored higher the sooner they come.
+     * @param depth - the remaining depth
+     * @param alpha - the lower bound of the window
+     * @param beta - the upper bound of the window
+     * @param ply - the distance from the root
+     * @param mark - the mark of the player to move
+     * @param empty - the number of empty cells
+     * @return the score of the position
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, Mark mark, int empty) {
+        this.nodes++;
+        if (outOfBudget()) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return DRAW_SCORE;
+        }
+        if (empty == 0) {
+            return DRAW_SCORE;
+        }
+        long key = this.positionKey.getKey();
+        long data = this.table.get(key);
+        int tableMove = -1;
+        if (data != TranspositionTable.NO_ENTRY) {
+            // the table move is stored in the frame of the canonical key
+            int canonicalMove = (int) (data >>> MOVE_SHIFT) - 1;
+            tableMove = canonicalMove < 0 ? -1 : this.positionKey.fromCanonical(canonicalMove);
+            if (ply > 0 && ((data >>> DEPTH_SHIFT) & DEPTH_MASK) >= depth) {
+                int score = fromTable((int) data, ply);
+                int flag = (int) ((data >>> FLAG_SHIFT) & FLAG_MASK);
+                if (flag == EXACT || (flag == LOWER_BOUND && score >= beta) ||
+                        (flag == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        if (depth == 0) {
+            return evaluate(mark);
+        }
+        int count = generateMoves(ply, tableMove);
+        int[] plyMoves = this.moves[ply];
+        int[] plyScores = this.moveScores[ply];
+        Mark other = mark == Mark.X ? Mark.O : Mark.X;
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            // selection sort, so the rest of the moves are not sorted after a cutoff
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (plyScores[j] > plyScores[best]) {
+                    best = j;
+                }
+            }
+            int move = plyMoves[best];
+            plyMoves[best] = plyMoves[i];
+            plyScores[best] = plyScores[i];
+            plyMoves[i] = move;
+            int row = move / this.size;
+            int col = move % this.size;
+            long change = evaluationChange(mark, row, col);
+            this.board.push(mark, row, col);
+            int score;
+            if (Game.checkLastMove(this.board, row, col, this.winStreak) == mark) {
+                score = WIN_SCORE - ply - 1;
+            } else {
+                this.positionKey.place(mark, move);
+                this.evaluation += change;
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, other, empty - 1);
+                this.evaluation -= change;
+                this.positionKey.remove(mark, move);
+            }
+            this.board.pop();
+            if (this.aborted) {
+                return DRAW_SCORE;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                this.history[move] += depth * depth;
+                break;
+            }
+        }
+        int flag = bestScore <= originalAlpha ? UPPER_BOUND : (bestScore >= beta ? LOWER_BOUND : EXACT);
+        if (ply == 0) {
+            this.rootMove = bestMove;
+        }
+        int canonicalMove = this.positionKey.toCanonical(bestMove);
+        this.table.put(key, ((long) (canonicalMove + 1) << MOVE_SHIFT) | ((long) flag << FLAG_SHIFT) |
+                (Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT) | (toTable(bestScore, ply) & 0xFFFFFFFFL));
+        return bestScore;
+    }
+
+    /**
+     * Fills the move list of the ply with the candidate cells of the board and their ordering scores.
+     * On large boards only the cells next to a mark are searched.
+     * @param ply - the distance from the root
+     * @param tableMove - the best move stored in the transposition table, or -1
+     * @return the number of moves
+     */
+    private int generateMoves(int ply, int tableMove) {
+        int candidates = this.board.getCandidateCount();
+        if (this.moves[ply] == null || this.moves[ply].length < candidates) {
+            this.moves[ply] = new int[Math.max(1, candidates)];
+            this.moveScores[ply] = new int[Math.max(1, candidates)];
+        }
+        int[] plyMoves = this.moves[ply];
+        int[] plyScores = this.moveScores[ply];
+        boolean allCells = this.size <= SEARCH_ALL_CELLS_SIZE;
+        int count = 0;
+        for (int i = 0; i < candidates; i++) {
+            int move = this.board.getCandidate(i);
+            if (!allCells && !hasNeighbour(move / this.size, move % this.size)) {
+                continue;
+            }
+            plyMoves[count] = move;
+            plyScores[count] = move == tableMove ? TT_MOVE_SCORE : this.history[move];
+            count++;
+        }
+        if (count == 0) {
+            // an empty large board, start from the center
+            int center = this.size / 2;
+            plyMoves[0] = center * this.size + center;
+            plyScores[0] = 0;
+            count = 1;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if one of the eight cells around the given cell has a mark.
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return true if a neighbour cell is marked
+     */
+    private boolean hasNeighbour(int row, int col) {
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (this.board.getMark(i, j) != Mark.BLANK) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The static evaluation of a position: every window of win streak cells that only one player
+     has marks in is worth more the more marks it has, for that player. The windows are counted by
+     evaluateBoard and evaluationChange as the search moves.
+     * @param mark - the mark of the player to move
+     * @return the score of the position from the point of view of the player to move
+     */
+    private int evaluate(Mark mark) {
+        long score = mark == Mark.X ? this.evaluation : -this.evaluation;
+        // keep the heuristic scores away from the scores of proven wins
+        long limit = WIN_SCORE - MAX_PLY - 1;
+        return (int) Math.max(-limit, Math.min(limit, score));
+    }
+
+    /**
+     * Counts the windows of the board from the point of view of X. Only the windows with a mark are
+     worth anything, so it goes over the windows through every mark, and counts a window at the
+     first mark in it.
+     * @return the sum of the windows
+     */
+    private long evaluateBoard() {
+        long score = 0;
+        for (int i = 0; i < this.board.getMoveCount(); i++) {
+            int row = this.board.getMove(i) / this.size;
+            int col = this.board.getMove(i) % this.size;
+            for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+                int rowStep = ROW_STEPS[direction];
+                int colStep = COL_STEPS[direction];
+                for (int back = 0; back < this.winStreak; back++) {
+                    int startRow = row - back * rowStep;
+                    int startCol = col - back * colStep;
+                    if (!windowFits(startRow, startCol, rowStep, colStep)) {
+                        continue;
+                    }
+                    int x = 0, o = 0;
+                    boolean first = true;
+                    for (int j = 0; j < this.winStreak; j++) {
+                        Mark cellMark = this.board.getMark(startRow + j * rowStep, startCol + j * colStep);
+                        if (cellMark == Mark.X) {
+                            x++;
+                        } else if (cellMark == Mark.O) {
+                            o++;
+                        }
+                        if (j < back && cellMark != Mark.BLANK) {
+                            first = false;
+                            break;
+                        }
+                    }
+                    if (first) {
+                        score += windowValue(x, o);
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Returns how much the windows from the point of view of X change when a mark is put on an empty
+     cell, by counting the windows through the cell with and without the mark.
+     * @param mark - the mark that is put
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return the change of the sum of the windows
+     */
+    private long evaluationChange(Mark mark, int row, int col) {
+        long change = 0;
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            for (int back = 0; back < this.winStreak; back++) {
+                int startRow = row - back * rowStep;
+                int startCol = col - back * colStep;
+                if (!windowFits(startRow, startCol, rowStep, colStep)) {
+                    continue;
+                }
+                int x = 0, o = 0;
+                for (int j = 0; j < this.winStreak; j++) {
+                    Mark cellMark = this.board.getMark(startRow + j * rowStep, startCol + j * colStep);
+                    if (cellMark == Mark.X) {
+                        x++;
+                    } else if (cellMark == Mark.O) {
+                        o++;
+                    }
+                }
+                long after = mark == Mark.X ? windowValue(x + 1, o) : windowValue(x, o + 1);
+                change += after - windowValue(x, o);
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Checks if a window of win streak cells is inside the board.
+     * @param startRow - the row of the first cell of the window
+     * @param startCol - the column of the first cell of the window
+     * @param rowStep - the row step of the direction of the window
+     * @param colStep - the column step of the direction of the window
+     * @return true if all the cells of the window are on the board
+     */
+    private boolean windowFits(int startRow, int startCol, int rowStep, int colStep) {
+        int endRow = startRow + (this.winStreak - 1) * rowStep;
+        int endCol = startCol + (this.winStreak - 1) * colStep;
+        return startRow >= 0 && startCol >= 0 && startCol < this.size && endRow < this.size &&
+                endCol >= 0 && endCol < this.size;
+    }
+
+    /**
+     * Returns the worth of a window from the point of view of X.
+     * @param x - the marks of X in the window
+     * @param o - the marks of O in the window
+     * @return the worth of the window, 0 if both players or none have marks in it
+     */
+    private long windowValue(int x, int o) {
+        if (o == 0) {
+            return this.windowWeights[x];
+        }
+        return x == 0 ? -this.windowWeights[o] : 0;
+    }
+
+    /**
+     * Checks if the budget of the move ran out, or the game interrupted the move because its deadline
+     passed.
+     * @return true if the search has to stop
+     */
+    private boolean outOfBudget() {
+        return (this.nodeBudget != UNLIMITED_NODES && this.nodes >= this.nodeBudget) ||
+                System.nanoTime() >= this.deadline || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Converts a score to be stored in the table, where wins are counted from the stored position.
+     * @param score - the score relative to the root
+     * @param ply - the distance from the root
+     * @return the score relative to the position
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score + ply;
+        } else if (score < -WIN_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score read from the table back to be relative to the root.
+     * @param score - the score relative to the position
+     * @param ply - the distance from the root
+     * @return the score relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score - ply;
+        } else if (score < -WIN_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Puts the mark on the first empty cell, in case the search found no move.
+     * @param board - the board
+     * @param mark - the mark to put on the board
+     */
+    private void playFirstEmpty(Board board, Mark mark) {
+        for (int row = 0; row < this.size; row++) {
+            for (int col = 0; col < this.size; col++) {
+                if (board.putMark(mark, row, col)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,36 +1,78 @@
 public class Board {
-    private final int board_size;
     private static final int DEFAULT_BOARD_SIZE = 4;
-    private final Mark[][] board;
+    private static final int DEFAULT_WIN_STREAK = 3;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = 63;
+    private static final int BITS_PER_WORD = 64;
+    private static final int DIRECTIONS = 4;
+    private final int board_size;
+    private final int winStreak;
+    private final long[] xBits;
+    private final long[] oBits;
+    private final int[] freeCells;
+    private final int[] freePositions;
+    private int freeCount;
+    private int rowOrderCursor;
+    private int columnOrderCursor;
+    private int columnOrderStart = -1;
+    private final int[] moves;
+    private int moveCount;
+    private long[][] streakStartMasks;
+    private int maskedStreak;
 
     /**
      * A default constructor of Board. It initializes a new board with default size.
      */
     public Board() {
-        this.board = new Mark[DEFAULT_BOARD_SIZE][DEFAULT_BOARD_SIZE];
-        this.board_size = DEFAULT_BOARD_SIZE;
-        initializeBoard();
+        this(DEFAULT_BOARD_SIZE);
     }
 
     /**
-     * This function fills the board with Blank marks.
+     * A constructor that gets the size of the board and initializes a new board of size x size
+     with the default win streak (or the size of the board if it is smaller).
+     * @param size - the size of the board.
      */
-    private void initializeBoard(){
-        for (int i = 0; i < this.board_size; i++) {
-            for (int j = 0; j < this.board_size; j++) {
-                this.board[i][j] = Mark.BLANK;
-            }
-        }
+    public Board(int size) {
+        this(size, Math.min(size, DEFAULT_WIN_STREAK));
     }
 
     /**
-     * A constructor that gets the size of the board and initializes a new board of size x size.
+     * A constructor that gets the size of the board and the win streak of the game that is played on
+     it and initializes a new board of size x size.
+     * The cells are kept as two bit sets, one for X and one for O, where cell (row, col) is the bit
+     number row * size + col. Boards up to 8x8 fit into a single long per side.
+     * The empty cells are also kept in a compact list, so players can find an empty cell without
+     trying the taken ones, and the marked cells are kept in a stack in the order they were put, so
+     a player that looks ahead can take its moves back with pop.
      * @param size - the size of the board.
+     * @param winStreak - the win streak of the game.
      */
-    public Board(int size) {
-        this.board = new Mark[size][size];
+    public Board(int size, int winStreak) {
+        this(size, winStreak, size * size);
+    }
+
+    /**
+     * A constructor that keeps the bit sets and the lists of the board for a given number of cells:
+     all the cells of the board, or none for boards that keep their cells in a different way, like
+     SparseBoard, which override every function that reads or changes the cells.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak of the game.
+     * @param keptCells - the number of cells the board keeps, size * size or 0.
+     */
+    protected Board(int size, int winStreak, int keptCells) {
         this.board_size = size;
-        initializeBoard();
+        this.winStreak = winStreak;
+        int words = (keptCells + BITS_PER_WORD - 1) >>> WORD_SHIFT;
+        this.xBits = new long[words];
+        this.oBits = new long[words];
+        this.freeCount = keptCells;
+        this.freeCells = new int[this.freeCount];
+        this.freePositions = new int[this.freeCount];
+        for (int cell = 0; cell < this.freeCount; cell++) {
+            this.freeCells[cell] = cell;
+            this.freePositions[cell] = cell;
+        }
+        this.moves = new int[this.freeCount];
     }
 
     /**
@@ -41,6 +83,15 @@ public class Board {
         return this.board_size;
     }
 
+    /**
+     * This function returns the win streak of the game that is played on the board, so that players
+     can look ahead for streaks.
+     * @return the win streak.
+     */
+    public int getWinStreak() {
+        return this.winStreak;
+    }
+
     /**
      * This function gets mark, row, column and tries to put the mark into the specified
       row and column. If the cell is blank - meaning it successfully put the mark, it returns true,
@@ -52,14 +103,250 @@ public class Board {
      */
     public boolean putMark(Mark mark, int row, int col) {
         if((0 <= row && row < this.board_size) && (0 <= col && col < this.board_size)) {
-            if (this.board[row][col] == Mark.BLANK) {
-                this.board[row][col] = mark;
+            int index = row * this.board_size + col;
+            int word = index >>> WORD_SHIFT;
+            long bit = 1L << index;
+            if (((this.xBits[word] | this.oBits[word]) & bit) == 0) {
+                if (mark == Mark.X) {
+                    this.xBits[word] |= bit;
+                } else if (mark == Mark.O) {
+                    this.oBits[word] |= bit;
+                } else {
+                    return false;
+                }
+                removeFreeCell(index);
+                this.moves[this.moveCount++] = index;
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * This function puts a mark like putMark, as the next move of the stack of moves that pop takes
+     back.
+     * @param mark - X or O
+     * @param row - a number between 0 and board_size - 1
+     * @param col - a number between 0 and board_size - 1
+     * @return true in success, false otherwise
+     */
+    public boolean push(Mark mark, int row, int col) {
+        return putMark(mark, row, col);
+    }
+
+    /**
+     * This function takes back the last mark that was put on the board, so that a player that looks
+     ahead can try moves without copying the board. The mark before it becomes the last mark again.
+     * @return the cell that was emptied as row * size + col, or -1 if the board is empty.
+     */
+    public int pop() {
+        int count = getMoveCount();
+        if (count == 0) {
+            return -1;
+        }
+        int cell = getMove(count - 1);
+        undoMark(cell / this.board_size, cell % this.board_size);
+        return cell;
+    }
+
+    /**
+     * This function removes the mark from the specified row and column, so that a player that looks
+     ahead can take back a mark it tried. The mark is also removed from the stack of moves, so the
+     last placed coordinate is the one of the latest mark that is still on the board.
+     * @param row - a number between 0 and board_size - 1
+     * @param col - a number between 0 and board_size - 1
+     * @return true if there was a mark to remove, false otherwise
+     */
+    public boolean undoMark(int row, int col) {
+        if((0 <= row && row < this.board_size) && (0 <= col && col < this.board_size)) {
+            int index = row * this.board_size + col;
+            int word = index >>> WORD_SHIFT;
+            long bit = 1L << index;
+            if (((this.xBits[word] | this.oBits[word]) & bit) != 0) {
+                this.xBits[word] &= ~bit;
+                this.oBits[word] &= ~bit;
+                addFreeCell(index, row, col);
+                removeMove(index);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function copies the marks of this board into another board of the same size, without
+     creating any object, so that a player can play out a game on a board of its own.
+     * @param target - the board to copy into
+     * @return true in success, false if the boards are not of the same size and kind
+     */
+    public boolean copyInto(Board target) {
+        if (target.board_size != this.board_size || target.xBits.length != this.xBits.length) {
+            return false;
+        }
+        System.arraycopy(this.xBits, 0, target.xBits, 0, this.xBits.length);
+        System.arraycopy(this.oBits, 0, target.oBits, 0, this.oBits.length);
+        System.arraycopy(this.freeCells, 0, target.freeCells, 0, this.freeCount);
+        System.arraycopy(this.freePositions, 0, target.freePositions, 0, this.freePositions.length);
+        target.freeCount = this.freeCount;
+        target.rowOrderCursor = this.rowOrderCursor;
+        target.columnOrderCursor = this.columnOrderCursor;
+        target.columnOrderStart = this.columnOrderStart;
+        System.arraycopy(this.moves, 0, target.moves, 0, this.moveCount);
+        target.moveCount = this.moveCount;
+        return true;
+    }
+
+    /**
+     * This function returns the number of marks on the board.
+     * @return the number of moves that were played.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * This function returns a mark of the board by the order it was put in.
+     * @param i - a number between 0 and getMoveCount() - 1, 0 for the first mark
+     * @return the cell of the mark as row * size + col.
+     */
+    public int getMove(int i) {
+        return this.moves[i];
+    }
+
+    /**
+     * This function returns the number of empty cells on the board.
+     * @return the number of empty cells.
+     */
+    public int getFreeCount() {
+        return this.freeCount;
+    }
+
+    /**
+     * This function returns an empty cell by its place in the list of empty cells. The order of the
+     list is arbitrary, so getFreeCell(random number below getFreeCount()) is a random empty cell.
+     * @param i - a number between 0 and getFreeCount() - 1
+     * @return the empty cell as row * size + col.
+     */
+    public int getFreeCell(int i) {
+        return this.freeCells[i];
+    }
+
+    /**
+     * This function returns the number of cells worth playing, which are all the empty cells. A
+     SparseBoard only offers the empty cells around the marks.
+     * @return the number of candidate cells.
+     */
+    public int getCandidateCount() {
+        return this.freeCount;
+    }
+
+    /**
+     * This function returns a cell worth playing by its place in the list of candidates, in the same
+     order as getFreeCell.
+     * @param i - a number between 0 and getCandidateCount() - 1
+     * @return the candidate cell as row * size + col.
+     */
+    public int getCandidate(int i) {
+        return this.freeCells[i];
+    }
+
+    /**
+     * This function returns the first empty cell going over the rows in order, each from left to right.
+     * @return the cell as row * size + col, or -1 if the board is full.
+     */
+    public int firstFreeCellInRowOrder() {
+        int cells = this.freePositions.length;
+        // every cell before the cursor is taken, so the cursor only moves back when a mark is undone
+        while (this.rowOrderCursor < cells && this.freePositions[this.rowOrderCursor] < 0) {
+            this.rowOrderCursor++;
+        }
+        return this.rowOrderCursor < cells ? this.rowOrderCursor : -1;
+    }
+
+    /**
+     * This function returns the first empty cell going over the columns in order, each from top to
+     bottom, starting from the given column and going back to column 0 after the last one.
+     * @param firstCol - the column to start from
+     * @return the cell as row * size + col, or -1 if the board is full.
+     */
+    public int firstFreeCellInColumnOrder(int firstCol) {
+        if (firstCol != this.columnOrderStart) {
+            this.columnOrderStart = firstCol;
+            this.columnOrderCursor = 0;
+        }
+        int cells = this.freePositions.length;
+        while (this.columnOrderCursor < cells) {
+            int row = this.columnOrderCursor % this.board_size;
+            int col = (firstCol + this.columnOrderCursor / this.board_size) % this.board_size;
+            int cell = row * this.board_size + col;
+            if (this.freePositions[cell] >= 0) {
+                return cell;
+            }
+            this.columnOrderCursor++;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a cell from the list of empty cells by moving the last empty cell into its place.
+     * @param cell - the cell that was taken
+     */
+    private void removeFreeCell(int cell) {
+        int position = this.freePositions[cell];
+        int last = this.freeCells[--this.freeCount];
+        this.freeCells[position] = last;
+        this.freePositions[last] = position;
+        this.freePositions[cell] = -1;
+    }
+
+    /**
+     * Adds a cell back to the list of empty cells and moves the cursors of the orders back to it
+     if it comes before them.
+     * @param cell - the cell that was emptied
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     */
+    private void addFreeCell(int cell, int row, int col) {
+        this.freeCells[this.freeCount] = cell;
+        this.freePositions[cell] = this.freeCount++;
+        this.rowOrderCursor = Math.min(this.rowOrderCursor, cell);
+        if (this.columnOrderStart >= 0) {
+            int position = ((col - this.columnOrderStart + this.board_size) % this.board_size) *
+                    this.board_size + row;
+            this.columnOrderCursor = Math.min(this.columnOrderCursor, position);
+        }
+    }
+
+    /**
+     * Removes a cell from the stack of moves. A search takes back its last move, so the cell is
+     looked for from the top of the stack.
+     * @param cell - the cell that was emptied
+     */
+    private void removeMove(int cell) {
+        int i = this.moveCount - 1;
+        while (this.moves[i] != cell) {
+            i--;
+        }
+        System.arraycopy(this.moves, i + 1, this.moves, i, this.moveCount - 1 - i);
+        this.moveCount--;
+    }
+
+    /**
+     * This function returns the row of the last mark that was put on the board.
+     * @return the row of the last placed mark, or -1 if the board is empty.
+     */
+    public int getLastRow() {
+        return this.moveCount == 0 ? -1 : this.moves[this.moveCount - 1] / this.board_size;
+    }
+
+    /**
+     * This function returns the column of the last mark that was put on the board.
+     * @return the column of the last placed mark, or -1 if the board is empty.
+     */
+    public int getLastCol() {
+        return this.moveCount == 0 ? -1 : this.moves[this.moveCount - 1] % this.board_size;
+    }
+
     /**
      * This function gets a specified row and column and returns the mark of the corresponding cell.
      * @param row - a row in the board
@@ -68,9 +355,144 @@ public class Board {
      */
     public Mark getMark(int row, int col) {
         if((0 <= row && row < this.board_size) && (0 <= col && col < this.board_size)) {
-            return this.board[row][col];
+            int index = row * this.board_size + col;
+            int word = index >>> WORD_SHIFT;
+            long bit = 1L << index;
+            if ((this.xBits[word] & bit) != 0) {
+                return Mark.X;
+            } else if ((this.oBits[word] & bit) != 0) {
+                return Mark.O;
+            }
         }
         return Mark.BLANK;
     }
 
+    /**
+     * This function checks whether the given mark has winStreak consecutive cells in some row,
+     column or diagonal. The check is done on the bit sets: the set of cells is shifted by the
+     step of each direction (1 for rows, size for columns, size + 1 and size - 1 for the diagonals)
+     and ANDed with itself winStreak - 1 times, so what is left are the cells that start a streak.
+     * @param mark - X or O
+     * @param winStreak - the length of the streak to look for
+     * @return true if the mark has such a streak, false otherwise (always false for Blank).
+     */
+    public boolean hasStreak(Mark mark, int winStreak) {
+        long[] bits;
+        if (mark == Mark.X) {
+            bits = this.xBits;
+        } else if (mark == Mark.O) {
+            bits = this.oBits;
+        } else {
+            return false;
+        }
+        if (winStreak > this.board_size) {
+            return false;
+        }
+        long[][] startMasks = getStreakStartMasks(winStreak);
+        int[] steps = {1, this.board_size, this.board_size + 1, this.board_size - 1};
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            if (bits.length == 1) {
+                if (hasStreakInWord(bits[0], startMasks[direction][0], steps[direction], winStreak)) {
+                    return true;
+                }
+            } else if (hasStreakInWords(bits, startMasks[direction], steps[direction], winStreak)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Single word version of the streak check, used for boards up to 8x8.
+     * @param bits - the cells of the mark
+     * @param startMask - the cells a streak in this direction may start from
+     * @param step - the distance in bits between two consecutive cells of the direction
+     * @param winStreak - the length of the streak
+     * @return true if a streak was found
+     */
+    private static boolean hasStreakInWord(long bits, long startMask, int step, int winStreak) {
+        long starts = bits & startMask;
+        for (int i = 1; i < winStreak && starts != 0; i++) {
+            starts &= bits >>> (i * step);
+        }
+        return starts != 0;
+    }
+
+    /**
+     * Multi word version of the streak check, used for boards bigger than 8x8.
+     * @param bits - the cells of the mark
+     * @param startMask - the cells a streak in this direction may start from
+     * @param step - the distance in bits between two consecutive cells of the direction
+     * @param winStreak - the length of the streak
+     * @return true if a streak was found
+     */
+    private static boolean hasStreakInWords(long[] bits, long[] startMask, int step, int winStreak) {
+        for (int word = 0; word < bits.length; word++) {
+            long starts = bits[word] & startMask[word];
+            for (int i = 1; i < winStreak && starts != 0; i++) {
+                starts &= shiftedWord(bits, word, i * step);
+            }
+            if (starts != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the 64 bits of the bit set that start shift bits after the beginning of the given word,
+     meaning word number word of the bit set shifted right by shift.
+     * @param bits - the bit set
+     * @param word - the index of the word
+     * @param shift - the number of bits to shift by
+     * @return the shifted word
+     */
+    private static long shiftedWord(long[] bits, int word, int shift) {
+        int first = word + (shift >>> WORD_SHIFT);
+        int offset = shift & WORD_MASK;
+        long low = first < bits.length ? bits[first] : 0L;
+        if (offset == 0) {
+            return low;
+        }
+        long high = first + 1 < bits.length ? bits[first + 1] : 0L;
+        return (low >>> offset) | (high << (BITS_PER_WORD - offset));
+    }
+
+    /**
+     * Returns for each direction the bit set of the cells that a streak of the given length
+     can start from without leaving the board. The masks are kept for the last streak asked for,
+     since a game always asks for the same one.
+     * @param winStreak - the length of the streak
+     * @return the masks of rows, columns, right diagonals and left diagonals
+     */
+    private long[][] getStreakStartMasks(int winStreak) {
+        if (this.streakStartMasks != null && this.maskedStreak == winStreak) {
+            return this.streakStartMasks;
+        }
+        long[][] masks = new long[DIRECTIONS][this.xBits.length];
+        int last = this.board_size - winStreak;
+        for (int row = 0; row < this.board_size; row++) {
+            for (int col = 0; col < this.board_size; col++) {
+                int index = row * this.board_size + col;
+                int word = index >>> WORD_SHIFT;
+                long bit = 1L << index;
+                if (col <= last) {
+                    masks[0][word] |= bit;
+                }
+                if (row <= last) {
+                    masks[1][word] |= bit;
+                }
+                if (row <= last && col <= last) {
+                    masks[2][word] |= bit;
+                }
+                if (row <= last && col >= winStreak - 1) {
+                    masks[3][word] |= bit;
+                }
+            }
+        }
+        this.streakStartMasks = masks;
+        this.maskedStreak = winStreak;
+        return masks;
+    }
+
 }
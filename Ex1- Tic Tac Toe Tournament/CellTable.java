@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * The CellTable class is a hash table from cells (row * size + col, as a long) to ints, kept in two
+ primitive arrays with open addressing and linear probing, so it creates no object per cell.
+ * Removing a key moves the keys after it in its probe run back, so the table never needs marks for
+ removed keys. The table doubles when it is half full.
+ */
+class CellTable {
+    /**
+     * The CellTable constants
+     */
+    private static final long EMPTY = -1L;  // cells are never negative
+    private static final int MIN_CAPACITY = 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private long[] keys;
+    private int[] values;
+    private int count;
+    private int shift;
+
+    /**
+     * The constructor of CellTable, for an empty table.
+     */
+    CellTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Allocates empty arrays of the given capacity.
+     * @param capacity - a power of 2
+     */
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Returns the slot a key is looked for from.
+     * @param key - the key
+     * @return the index of the slot
+     */
+    private int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> this.shift);
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     * @return the number of keys.
+     */
+    int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the value of a key.
+     * @param key - the key
+     * @param missing - the value to return if the key is not in the table
+     * @return the value of the key, or missing.
+     */
+    int get(long key, int missing) {
+        int mask = this.keys.length - 1;
+        for (int i = slot(key); this.keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return this.values[i];
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Checks if a key is in the table.
+     * @param key - the key
+     * @return true if the table has the key.
+     */
+    boolean containsKey(long key) {
+        int mask = this.keys.length - 1;
+        for (int i = slot(key); this.keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the value of a key, adding the key if it is not in the table.
+     * @param key - the key, not negative
+     * @param value - the value
+     */
+    void put(long key, int value) {
+        int mask = this.keys.length - 1;
+        int i = slot(key);
+        while (this.keys[i] != EMPTY) {
+            if (this.keys[i] == key) {
+                this.values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        if (++this.count * 2 > this.keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes a key from the table, moving back the keys after it that would not be found anymore.
+     * @param key - the key
+     * @return true if the key was in the table.
+     */
+    boolean remove(long key) {
+        int mask = this.keys.length - 1;
+        int i = slot(key);
+        while (this.keys[i] != key) {
+            if (this.keys[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        int hole = i;
+        for (int j = (hole + 1) & mask; this.keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(this.keys[j]);
+            // the key at j can fill the hole if its home slot is not between the hole and j
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+        }
+        this.keys[hole] = EMPTY;
+        this.count--;
+        return true;
+    }
+
+    /**
+     * Makes this table a copy of another one, reusing its arrays if they are of the same capacity.
+     * @param other - the table to copy
+     */
+    void copyFrom(CellTable other) {
+        if (this.keys.length != other.keys.length) {
+            this.keys = new long[other.keys.length];
+            this.values = new int[other.values.length];
+            this.shift = other.shift;
+        }
+        System.arraycopy(other.keys, 0, this.keys, 0, other.keys.length);
+        System.arraycopy(other.values, 0, this.values, 0, other.values.length);
+        this.count = other.count;
+    }
+
+    /**
+     * Doubles the capacity of the table and puts all the keys again.
+     */
+    private void grow() {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        allocate(oldKeys.length * 2);
+        int mask = this.keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = slot(oldKeys[j]);
+                while (this.keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                this.keys[i] = oldKeys[j];
+                this.values[i] = oldValues[j];
+            }
+        }
+    }
+}
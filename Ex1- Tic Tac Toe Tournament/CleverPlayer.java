@@ -1,5 +1,3 @@
-import java.util.Random;
-
 public class CleverPlayer implements Player{
     /**
      * A default constructor for the CleverPlayer class.
@@ -11,21 +9,15 @@ public class CleverPlayer implements Player{
     /**
      * This function gets a board and a mark and plays a CleverPlayer turn.
      * The CleverPlayer's strategy is to fill rows in order, starting from the row 0.
-     * When a cell is taken it tries to put the mark on the next cell to its right.
+     * When a cell is taken it puts the mark on the next cell to its right, so it plays on the first
+     empty cell in row order.
      * @param board - the board
      * @param mark - the mark to be put on the board
      */
     public void playTurn(Board board, Mark mark) {
-        boolean playedTurn = false;
-        int cleverRow = 0, cleverCol = 0;
-        // constantly try playing a turn as long as the position is taken.
-        while(!playedTurn) {
-            playedTurn = board.putMark(mark, cleverRow, cleverCol);
-            cleverCol++;
-            if (cleverCol == board.getSize()) {
-                cleverRow++;
-                cleverCol = 0;
-            }
+        int cell = board.firstFreeCellInRowOrder();
+        if (cell >= 0) {
+            board.putMark(mark, cell / board.getSize(), cell % board.getSize());
         }
     }
 }
@@ -0,0 +1,78 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The ConcurrentLongSet class is a set of longs that many threads add to at once without locks: it
+ uses open addressing with linear probing over an AtomicLongArray, and a key claims its slot with a
+ compare and set. It does not grow, so it is made with room for all the keys it will hold, and adding
+ a key to a full set throws an IllegalStateException.
+ * The key 0 marks an empty slot and can not be added.
+ */
+class ConcurrentLongSet {
+    /**
+     * The ConcurrentLongSet constants
+     */
+    private static final long EMPTY = 0;
+    static final int MAX_KEYS = 1 << 27;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final AtomicLongArray keys;
+    private final int shift;
+
+    /**
+     * The constructor of ConcurrentLongSet, for an empty set.
+     * @param maxKeys - the most keys the set will hold, up to MAX_KEYS; the set has at least twice as
+     many slots.
+     */
+    ConcurrentLongSet(long maxKeys) {
+        int capacity = Integer.highestOneBit((int) Math.min(MAX_KEYS, Math.max(1, maxKeys))) << 2;
+        this.keys = new AtomicLongArray(capacity);
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Adds a key to the set.
+     * @param key - the key, not 0
+     * @return true if the key was added by this call, false if it was already in the set.
+     * @throws IllegalStateException if the key is not in the set and every slot is taken.
+     */
+    boolean add(long key) {
+        int mask = this.keys.length() - 1;
+        int i = (int) ((key * HASH_MULTIPLIER) >>> this.shift);
+        for (int probes = 0; probes < this.keys.length(); probes++, i = (i + 1) & mask) {
+            long slotKey = this.keys.get(i);
+            if (slotKey == EMPTY) {
+                if (this.keys.compareAndSet(i, EMPTY, key)) {
+                    return true;
+                }
+                slotKey = this.keys.get(i);   // another thread took the slot first
+            }
+            if (slotKey == key) {
+                return false;
+            }
+        }
+        throw new IllegalStateException("the set is full: " + this.keys.length() + " slots");
+    }
+
+    /**
+     * Returns the keys of the set that have none of the bits of a mask.
+     * @param excludedBits - the mask
+     * @return the keys, in no particular order.
+     */
+    long[] toArray(long excludedBits) {
+        int count = 0;
+        for (int i = 0; i < this.keys.length(); i++) {
+            long key = this.keys.get(i);
+            if (key != EMPTY && (key & excludedBits) == 0) {
+                count++;
+            }
+        }
+        long[] array = new long[count];
+        count = 0;
+        for (int i = 0; i < this.keys.length() && count < array.length; i++) {
+            long key = this.keys.get(i);
+            if (key != EMPTY && (key & excludedBits) == 0) {
+                array[count++] = key;
+            }
+        }
+        return array;
+    }
+}
@@ -1,9 +1,10 @@
 public class Constants {
     public final static String UNKNOWN_PLAYER_NAME = "Choose a player, " +
-            "and start again.\nThe players: [human, clever, whatever, genius]";
+            "and start again.\nThe players: [human, clever, whatever, genius, alphabeta, mcts, tablebase, " +
+            "learned, threat]";
 
     public final static String UNKNOWN_RENDERER_NAME = "Choose a renderer, " +
-            "and start again. \nPlease choose one of the following [console, none]";
+            "and start again. \nPlease choose one of the following [console, none, diff]";
 
     public final static String INVALID_COORDINATE = "Invalid mark position, please choose a " +
             "different position.\n" +
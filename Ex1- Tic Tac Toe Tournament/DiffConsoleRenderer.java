@@ -0,0 +1,241 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The DiffConsoleRenderer class draws the board on a terminal that understands ANSI escape codes.
+ * The board is drawn once at the top of the screen, and from then on only the cells that changed
+ since the last frame are written, each at its place with a cursor positioning code, so a frame
+ costs a few bytes no matter how large the board is. The changed cells are the moves the board
+ got since the last frame, read from its move history, and when a new game starts the cells of
+ the previous game are blanked. The lines below the board are made the scrolling region of the
+ terminal, so the text other classes print does not move the board, and the whole screen is made
+ the scrolling region again when the program exits.
+ * A frame is built in a byte buffer that is reused and written with a single call. The renderer
+ draws at most maxFramesPerSecond frames; a board that changes faster is drawn when the next frame
+ is due, and the final board of a game is always drawn (endGame).
+ */
+public class DiffConsoleRenderer implements Renderer {
+    /**
+     * The DiffConsoleRenderer constants
+     */
+    private static final int DEFAULT_FRAMES_PER_SECOND = 30;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final byte ESCAPE = 0x1B;
+    private static final byte[] CLEAR_SCREEN = {ESCAPE, '[', '2', 'J'};
+    private static final byte[] RESET_SCROLL_REGION = {ESCAPE, '[', 'r'};
+    private static final byte BLANK_SYMBOL = '.';
+    private static final byte X_SYMBOL = 'X';
+    private static final byte O_SYMBOL = 'O';
+    private static final int COLUMNS_PER_CELL = 2;
+    private static final int INITIAL_BUFFER = 256;
+    private static final PrintStream out = System.out;
+    private static final AtomicBoolean resetOnExit = new AtomicBoolean();
+    private final int size;
+    private final long frameNanos;
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+    private int length;
+    private int[] shownCells = new int[INITIAL_BUFFER];
+    private int shownCount;
+    private Board shownBoard;
+    private boolean drawn;
+    private long lastFrame;
+    private Board pending;
+
+    /**
+     * The constructor of DiffConsoleRenderer, drawing at most DEFAULT_FRAMES_PER_SECOND frames a second.
+     * @param size - the size of the board.
+     */
+    public DiffConsoleRenderer(int size) {
+        this(size, DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    /**
+     * The constructor of DiffConsoleRenderer.
+     * @param size - the size of the board.
+     * @param maxFramesPerSecond - the most frames to draw in a second, or 0 to draw every move.
+     */
+    public DiffConsoleRenderer(int size, int maxFramesPerSecond) {
+        this.size = size;
+        this.frameNanos = maxFramesPerSecond > 0 ? NANOS_PER_SECOND / maxFramesPerSecond : 0;
+    }
+
+    /**
+     * The renderBoard method draws the cells of the board that changed since the last frame, if a
+     frame is due. Otherwise the board waits for the next frame.
+     * @param board - the board
+     */
+    public void renderBoard(Board board) {
+        if (this.pending != null && this.pending != board) {   // the last moves of the previous game
+            drawFrame(this.pending);
+        }
+        long now = System.nanoTime();
+        if (now - this.lastFrame >= this.frameNanos) {
+            drawFrame(board);
+            this.pending = null;
+            this.lastFrame = now;
+        } else {
+            this.pending = board;
+        }
+    }
+
+    /**
+     * The endGame method draws the final board of a game, whether it ended with a win, a full board,
+     an early draw or a forfeit.
+     * @param board - the final board of the game
+     */
+    @Override
+    public void endGame(Board board) {
+        drawFrame(board);
+        this.pending = null;
+        this.lastFrame = System.nanoTime();
+    }
+
+    /**
+     * Builds the frame of a board and writes it. The first frame draws the whole empty board.
+     * @param board - the board
+     */
+    private void drawFrame(Board board) {
+        this.length = 0;
+        if (!this.drawn) {
+            append(CLEAR_SCREEN);
+            for (int row = 0; row < this.size; row++) {
+                appendCursor(row + 1, 1);
+                for (int col = 0; col < this.size; col++) {
+                    append(BLANK_SYMBOL);
+                    append((byte) ' ');
+                }
+            }
+            appendScrollRegion();
+            resetScrollRegionOnExit();
+            this.drawn = true;
+        }
+        if (board != this.shownBoard || board.getMoveCount() < this.shownCount) {
+            // a new game: blank the cells of the previous one
+            for (int i = 0; i < this.shownCount; i++) {
+                appendCell(this.shownCells[i], BLANK_SYMBOL);
+            }
+            this.shownCount = 0;
+            this.shownBoard = board;
+        }
+        for (; this.shownCount < board.getMoveCount(); this.shownCount++) {
+            int cell = board.getMove(this.shownCount);
+            appendCell(cell, symbolOf(board.getMark(cell / this.size, cell % this.size)));
+            if (this.shownCount == this.shownCells.length) {
+                int[] bigger = new int[this.shownCells.length * 2];
+                System.arraycopy(this.shownCells, 0, bigger, 0, this.shownCount);
+                this.shownCells = bigger;
+            }
+            this.shownCells[this.shownCount] = cell;
+        }
+        if (this.length == 0) {
+            return;
+        }
+        appendCursor(this.size + 1, 1);   // back to the scrolling region
+        synchronized (out) {
+            out.write(this.buffer, 0, this.length);
+            out.flush();
+        }
+    }
+
+    /**
+     * Appends the code that draws a symbol in a cell.
+     * @param cell - the cell, as row * size + col
+     * @param symbol - the symbol
+     */
+    private void appendCell(int cell, byte symbol) {
+        appendCursor(cell / this.size + 1, (cell % this.size) * COLUMNS_PER_CELL + 1);
+        append(symbol);
+    }
+
+    /**
+     * Makes the whole screen the scrolling region of the terminal again when the program exits, once
+     for all the renderers.
+     */
+    private static void resetScrollRegionOnExit() {
+        if (resetOnExit.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (out) {
+                    out.write(RESET_SCROLL_REGION, 0, RESET_SCROLL_REGION.length);
+                    out.flush();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Returns the symbol a mark is drawn with.
+     * @param mark - the mark
+     * @return the symbol.
+     */
+    private static byte symbolOf(Mark mark) {
+        switch (mark) {
+            case X:
+                return X_SYMBOL;
+            case O:
+                return O_SYMBOL;
+            default:
+                return BLANK_SYMBOL;
+        }
+    }
+
+    /**
+     * Appends the code that makes the lines below the board the scrolling region of the terminal.
+     */
+    private void appendScrollRegion() {
+        append(ESCAPE);
+        append((byte) '[');
+        appendNumber(this.size + 1);
+        append((byte) 'r');
+    }
+
+    /**
+     * Appends the code that moves the cursor.
+     * @param line - the line on the screen, from 1
+     * @param column - the column on the screen, from 1
+     */
+    private void appendCursor(int line, int column) {
+        append(ESCAPE);
+        append((byte) '[');
+        appendNumber(line);
+        append((byte) ';');
+        appendNumber(column);
+        append((byte) 'H');
+    }
+
+    /**
+     * Appends the decimal digits of a number.
+     * @param number - a positive number
+     */
+    private void appendNumber(int number) {
+        int divisor = 1;
+        while (divisor <= number / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            append((byte) ('0' + number / divisor % 10));
+        }
+    }
+
+    /**
+     * Appends bytes to the frame.
+     * @param bytes - the bytes
+     */
+    private void append(byte[] bytes) {
+        for (byte b : bytes) {
+            append(b);
+        }
+    }
+
+    /**
+     * Appends a byte to the frame, growing the buffer if it is full.
+     * @param b - the byte
+     */
+    private void append(byte b) {
+        if (this.length == this.buffer.length) {
+            byte[] bigger = new byte[this.buffer.length * 2];
+            System.arraycopy(this.buffer, 0, bigger, 0, this.length);
+            this.buffer = bigger;
+        }
+        this.buffer[this.length++] = b;
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * The EngineBenchmark class measures the hot paths of the engine: Board.putMark and getMark, the win
+ check of Game, the whole-board bitboard check Board.hasStreak, a full Game.run with a VoidRenderer
+ and the rounds of a Tournament.
+ * Every benchmark runs for a warmup time, so the JIT compiles it, and then for a measurement time.
+ The results are printed as nanoseconds per move and games per second, for board sizes 3 to 20
+ and a range of win streaks. The results of the measured code are summed into a sink, so the JIT
+ can not drop it.
+ */
+public class EngineBenchmark {
+    /**
+     * The EngineBenchmark constants
+     */
+    private static final int[] SIZES = {3, 4, 5, 8, 10, 15, 20};
+    private static final int[] WIN_STREAKS = {3, 4, 5};
+    private static final long DEFAULT_WARMUP_MILLIS = 500;
+    private static final long DEFAULT_MEASURE_MILLIS = 1000;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final int WARMUP_IND = 0;
+    private static final int MEASURE_IND = 1;
+    private static final int BATCH = 64;
+    private static final long SEED = 42;
+    private static final String WHATEVER_PLAYER = "whatever";
+    private static final String NONE_RENDERER = "none";
+    private static long sink;
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    /**
+     * The constructor of EngineBenchmark.
+     * @param warmupMillis - the warmup time of every benchmark.
+     * @param measureMillis - the measurement time of every benchmark.
+     */
+    public EngineBenchmark(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * NANOS_PER_MILLI;
+        this.measureNanos = measureMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Runs a benchmark for the warmup time and then for the measurement time.
+     * @param benchmark - the benchmark, a batch that returns the number of moves it made
+     * @return the moves and the nanoseconds of the measurement, and the batches that ran in it
+     */
+    private long[] measure(LongSupplier benchmark) {
+        long end = System.nanoTime() + this.warmupNanos;
+        while (System.nanoTime() < end) {
+            sink += benchmark.getAsLong();
+        }
+        long moves = 0, batches = 0;
+        long start = System.nanoTime();
+        long now = start;
+        end = start + this.measureNanos;
+        while (now < end) {
+            moves += benchmark.getAsLong();
+            batches++;
+            now = System.nanoTime();
+        }
+        return new long[]{moves, now - start, batches};
+    }
+
+    /**
+     * Measures putMark on every cell of a board, followed by getMark on every cell.
+     * @param size - the size of the board
+     * @return the nanoseconds per putMark and getMark pair
+     */
+    private double benchmarkBoard(int size) {
+        int cells = size * size;
+        long[] result = measure(() -> {
+            long found = 0;
+            for (int b = 0; b < BATCH; b++) {
+                Board board = new Board(size);
+                for (int cell = 0; cell < cells; cell++) {
+                    board.putMark(cell % 2 == 0 ? Mark.X : Mark.O, cell / size, cell % size);
+                }
+                for (int cell = 0; cell < cells; cell++) {
+                    found += board.getMark(cell / size, cell % size).ordinal();
+                }
+            }
+            sink += found;
+            return (long) BATCH * cells;
+        });
+        return (double) result[1] / result[0];
+    }
+
+    /**
+     * Measures the win check of Game on the last moves of random positions.
+     * @param size - the size of the board
+     * @param winStreak - the win streak
+     * @return the nanoseconds per check
+     */
+    private double benchmarkWinCheck(int size, int winStreak) {
+        int cells = size * size;
+        Board board = new Board(size, winStreak);
+        int[] moves = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int other = this.random.nextInt(cell + 1);
+            moves[cell] = moves[other];
+            moves[other] = cell;
+        }
+        for (int i = 0; i < cells; i++) {
+            board.putMark(i % 2 == 0 ? Mark.X : Mark.O, moves[i] / size, moves[i] % size);
+        }
+        long[] result = measure(() -> {
+            long found = 0;
+            for (int b = 0; b < BATCH; b++) {
+                for (int i = 0; i < cells; i++) {
+                    found += Game.checkLastMove(board, moves[i] / size, moves[i] % size,
+                            winStreak).ordinal();
+                }
+            }
+            sink += found;
+            return (long) BATCH * cells;
+        });
+        return (double) result[1] / result[0];
+    }
+
+    /**
+     * Measures the whole-board bitboard check on the positions of a random game, one per move, after
+     checking that it finds a streak exactly when the win check of Game found one on the way.
+     * @param size - the size of the board
+     * @param winStreak - the win streak
+     * @return the nanoseconds per check
+     */
+    private double benchmarkStreakCheck(int size, int winStreak) {
+        int cells = size * size;
+        Board[] boards = new Board[cells];
+        Mark[] marks = new Mark[cells];
+        Board board = new Board(size, winStreak);
+        boolean[] won = new boolean[Mark.values().length];
+        for (int i = 0; i < cells; i++) {
+            int cell;
+            do {
+                cell = this.random.nextInt(cells);
+            } while (board.getMark(cell / size, cell % size) != Mark.BLANK);
+            marks[i] = i % 2 == 0 ? Mark.X : Mark.O;
+            board.putMark(marks[i], cell / size, cell % size);
+            won[marks[i].ordinal()] |= Game.checkLastMove(board, cell / size, cell % size, winStreak) ==
+                    marks[i];
+            if (board.hasStreak(marks[i], winStreak) != won[marks[i].ordinal()]) {
+                throw new IllegalStateException("The win checks disagree on a " + size + "x" + size +
+                        " board with a win streak of " + winStreak);
+            }
+            boards[i] = new Board(size, winStreak);
+            board.copyInto(boards[i]);
+        }
+        long[] result = measure(() -> {
+            long found = 0;
+            for (int b = 0; b < BATCH; b++) {
+                for (int i = 0; i < cells; i++) {
+                    found += boards[i].hasStreak(marks[i], winStreak) ? 1 : 0;
+                }
+            }
+            sink += found;
+            return (long) BATCH * cells;
+        });
+        return (double) result[1] / result[0];
+    }
+
+    /**
+     * Measures full games between two random players with a VoidRenderer.
+     * @param size - the size of the board
+     * @param winStreak - the win streak
+     * @return the nanoseconds per move and the games per second
+     */
+    private double[] benchmarkGame(int size, int winStreak) {
+        WhateverPlayer player = new WhateverPlayer();
+        player.setRandom(this.random.split());
+        long[] moveCounter = new long[1];
+        Player counting = (board, mark) -> {
+            moveCounter[0]++;
+            player.playTurn(board, mark);
+        };
+        Renderer renderer = new VoidRenderer();
+        long[] result = measure(() -> {
+            long before = moveCounter[0];
+            sink += new Game(counting, counting, size, winStreak, renderer).run().ordinal();
+            return moveCounter[0] - before;
+        });
+        return new double[]{(double) result[1] / result[0], result[2] * NANOS_PER_SECOND / result[1]};
+    }
+
+    /**
+     * Measures the rounds of a seeded tournament between two random players, as the sequential
+     tournament plays them.
+     * @param size - the size of the board
+     * @param winStreak - the win streak
+     * @return the games per second
+     */
+    private double benchmarkTournament(int size, int winStreak) {
+        Tournament tournament = new Tournament(BATCH);
+        tournament.setSeed(SEED);
+        long[] result = measure(() -> {
+            int[] results = tournament.playRounds(0, BATCH, size, winStreak, NONE_RENDERER,
+                    WHATEVER_PLAYER, WHATEVER_PLAYER);
+            sink += results[RoundsTask.FIRST_PLAYER_WINS];
+            return BATCH;
+        });
+        return result[0] * NANOS_PER_SECOND / result[1];
+    }
+
+    /**
+     * Runs all the benchmarks and prints a line for every size and win streak.
+     */
+    public void runAll() {
+        System.out.println("size streak | board ns/cell | win check ns | streak check ns | game ns/move" +
+                " | game games/sec | tournament games/sec");
+        for (int size : SIZES) {
+            double board = benchmarkBoard(size);
+            for (int winStreak : WIN_STREAKS) {
+                if (winStreak > size) {
+                    continue;
+                }
+                double winCheck = benchmarkWinCheck(size, winStreak);
+                double streakCheck = benchmarkStreakCheck(size, winStreak);
+                double[] game = benchmarkGame(size, winStreak);
+                double tournament = benchmarkTournament(size, winStreak);
+                System.out.printf("%4d %6d | %13.2f | %12.2f | %15.2f | %12.2f | %14.0f | %20.0f%n", size,
+                        winStreak, board, winCheck, streakCheck, game[0], game[1], tournament);
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    /**
+     * The main method of the benchmark.
+     * @param args - optionally the warmup and the measurement time of every benchmark, in milliseconds
+     */
+    public static void main(String[] args) {
+        long warmup = args.length > WARMUP_IND ? Long.parseLong(args[WARMUP_IND]) : DEFAULT_WARMUP_MILLIS;
+        long measure = args.length > MEASURE_IND ? Long.parseLong(args[MEASURE_IND]) :
+                DEFAULT_MEASURE_MILLIS;
+        new EngineBenchmark(warmup, measure).runAll();
+    }
+}
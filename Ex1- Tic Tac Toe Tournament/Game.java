@@ -1,3 +1,5 @@
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
 
 public class Game {
     /**
@@ -7,13 +9,22 @@ public class Game {
     private static final int DEFAULT_BOARD_SIZE = 4;
     private static final int MINIMAL_WIN_STREAK = 2;
     private static final int NUMBER_OF_PLAYERS = 2;
-    private static final String RIGHT_DIAGONAL = "right";
-    private static final String LEFT_DIAGONAL = "left";
+    private static final int SPARSE_BOARD_SIZE = 100;
+    // row, column, right diagonal and left diagonal directions
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
     private final int winStreak;
     private final int board_size;
     private final Player playerX;
     private final Player playerO;
     private final Renderer renderer;
+    private GameRecordWriter recorder;
+    private int xPlayerId;
+    private int oPlayerId;
+    private LatencyHistogram[] latencies;
+    private long moveTimeoutNanos;
+    private long timedTurnCpuNanos;
+    private boolean forfeited;
 
     /**
      * This is the default constructor of Game(size and win streak with default values).
@@ -43,11 +54,66 @@ public class Game {
         this.playerX = playerX;
         this.playerO = playerO;
         this.renderer = renderer;
+        this.winStreak = correctWinStreak(size, winStreak);
+    }
+
+    /**
+     * This method corrects the win streak of a game: a win streak that is longer than the size of the
+     board or shorter than MINIMAL_WIN_STREAK becomes the size of the board.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak that was asked for.
+     * @return the win streak the game is played with.
+     */
+    static int correctWinStreak(int size, int winStreak) {
         if(winStreak > size || winStreak < MINIMAL_WIN_STREAK) {
-            this.winStreak = size;
-        } else {
-            this.winStreak = winStreak;
+            return size;
         }
+        return winStreak;
+    }
+
+    /**
+     * This function makes the game append itself to a game record file when it ends.
+     * @param recorder - the writer of the file.
+     * @param xPlayerId - the index of the name of the player who plays X in the file.
+     * @param oPlayerId - the index of the name of the player who plays O in the file.
+     */
+    public void setRecorder(GameRecordWriter recorder, int xPlayerId, int oPlayerId) {
+        this.recorder = recorder;
+        this.xPlayerId = xPlayerId;
+        this.oPlayerId = oPlayerId;
+    }
+
+    /**
+     * This function makes the game time every move of its players.
+     * @param xLatency - the histogram of the moves of the player who plays X.
+     * @param oLatency - the histogram of the moves of the player who plays O.
+     */
+    public void setLatencyHistograms(LatencyHistogram xLatency, LatencyHistogram oLatency) {
+        this.latencies = new LatencyHistogram[]{xLatency, oLatency};
+    }
+
+    /**
+     * This function gives every move of the game a deadline. Every turn is played on a virtual
+     thread, on a copy of the board, and a player that does not finish its turn in time is
+     interrupted and loses the game. The thread that runs the game only waits for the turns, so it
+     can be a virtual thread too (see Tournament.playConcurrentTournament).
+     * A player that ignores the interrupt may go on running in the background, but it can only
+     change its own copy of the board. Such a player must not play another game, since its turn
+     may still use it, and Tournament replaces it. Players that search should stop when they are
+     interrupted, since virtual threads share a few carrier threads.
+     * @param moveTimeoutMillis - the time every move may take, in milliseconds, or 0 for no deadline.
+     */
+    public void setMoveTimeout(long moveTimeoutMillis) {
+        this.moveTimeoutNanos = Duration.ofMillis(moveTimeoutMillis).toNanos();
+    }
+
+    /**
+     * This function tells if the last game that was run ended because a player ran out of time or
+     ended its turn without putting a mark.
+     * @return true if the game was forfeited.
+     */
+    public boolean isForfeited() {
+        return this.forfeited;
     }
 
     /**
@@ -69,187 +135,192 @@ public class Game {
     }
 
     /**
-     * This method checks if someone won a win streak in some row and returns the mark of the winner.
+     * This method checks if the last move on the board won the game and returns the winner.
+     * Only the four lines through the last placed cell are checked, so it costs O(win streak)
+     instead of scanning the whole board.
      * If the game is still played it returns the Blank mark.
      * @param board - the board of the game.
      * @return X, O or Blank
      */
-    private Mark checkRow(Board board) {
-        int counterX = 0;
-        int counterO = 0;
-        for (int row = 0; row < this.board_size; row++) {
-            for (int col = 0; col < this.board_size; col++) {
-                // The following conditions check if the mark on board is X or O
-                if(board.getMark(row, col) == Mark.X) {
-                    counterX++;
-                    counterO = 0;  // the appearance of X breaks the O counter
-                } else if(board.getMark(row, col) == Mark.O) {
-                    counterO++;
-                    counterX = 0;  // the appearance of O breaks the X counter
-                } else {     // the case of blank mark
-                    counterX = 0;   // the appearance of blank breaks the X counter
-                    counterO = 0;   // the appearance of blank breaks the O counter
-                }
-                // The following conditions check whether some player got a win streak
-                if(counterX == this.winStreak) {
-                    return Mark.X;
-                } else if(counterO == this.winStreak) {
-                    return Mark.O;
-                }
-            }
-            counterX = 0;
-            counterO = 0;
-        }
-        return Mark.BLANK;   // it means nobody got a row streak
+    private Mark checkBoardResult(Board board) {
+        return checkLastMove(board, board.getLastRow(), board.getLastCol(), this.winStreak);
     }
+
     /**
-     * This method checks if someone won a win streak in some column and returns the winner.
-     * If the game is still played it returns the Blank mark.
+     * This method checks if the mark in the given cell is part of a win streak in its row, column or
+     one of its diagonals, by counting the equal marks outward from the cell in both ways of each line.
      * @param board - the board of the game.
-     * @return X, O or Blank
+     * @param row - the row of the cell that was just played
+     * @param col - the column of the cell that was just played
+     * @param winStreak - the win streak of the game
+     * @return the mark of the cell if it completes a win streak, Blank otherwise.
      */
-    private Mark checkCol(Board board) {
-        int counterX = 0;
-        int counterO = 0;
-        for (int col = 0; col < this.board_size; col++) {
-            for (int row = 0; row < this.board_size; row++) {
-                // The following conditions check if the mark on board is X or O
-                if(board.getMark(row, col) == Mark.X) {
-                    counterX++;
-                    counterO = 0;  // the appearance of X breaks the O counter
-                } else if(board.getMark(row, col) == Mark.O) {
-                    counterO++;
-                    counterX = 0;  // the appearance of O breaks the X counter
-                } else {     // the case of blank mark
-                    counterX = 0;   // the appearance of blank breaks the X counter
-                    counterO = 0;   // the appearance of blank breaks the O counter
-                }
-                // The following conditions check whether some player got a win streak
-                if(counterX == this.winStreak) {
-                    return Mark.X;
-                } else if(counterO == this.winStreak) {
-                    return Mark.O;
-                }
-            }
-            counterX = 0;
-            counterO = 0;
+    static Mark checkLastMove(Board board, int row, int col, int winStreak) {
+        Mark mark = board.getMark(row, col);
+        if (mark == Mark.BLANK) {
+            return Mark.BLANK;
         }
-        return Mark.BLANK;   // it means nobody got a column streak
-    }
-    /**
-     * This method checks if someone won a win streak from the diagonal of a specific cell.
-     * It returns the mark of the winner or the blank mark in case there's no diagonal of size win streak
-     from the specific cell given as an argument.
-     * @param board - the board of the game.
-     * @param row - the row of a specific cell
-     * @param col - the column of a specific cell
-     * @param diagonalType - right diagonal or left diagonal
-     * @return X, O or Blank
-     */
-    private Mark checkDiagonalByCoordinate(Board board, int row, int col, String diagonalType) {
-        int countX = 0, countO = 0;
-        // Checks if row and column are in bounds
-        while((row < this.board_size) && (row >= 0) && (col >= 0) && (col < this.board_size)) {
-            if(board.getMark(row, col) == Mark.X) {
-                countX++;
-                countO = 0;   // initialize countO
-            } else if(board.getMark(row, col) == Mark.O) {
-                countO++;
-                countX = 0;   // initialize countX
-            } else {      // the case when Mark is blank
-                countX = 0;     // X hasn't got a streak yet so the blank mark broke it
-                countO = 0;     // O hasn't got a streak yet so the blank mark broke it
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            int streak = 1;
+            // count forward and then backward, never more than the streak we are looking for
+            for (int i = 1; streak < winStreak &&
+                    board.getMark(row + i * rowStep, col + i * colStep) == mark; i++) {
+                streak++;
             }
-            // The following conditions check if X or O got a win streak and won
-            if(countX == this.winStreak) {
-                return Mark.X;
-            } else if(countO == this.winStreak) {
-                return Mark.O;
+            for (int i = 1; streak < winStreak &&
+                    board.getMark(row - i * rowStep, col - i * colStep) == mark; i++) {
+                streak++;
             }
-            if(diagonalType.equals(RIGHT_DIAGONAL)) {
-                row++;
-                col++;
-            } else {
-                row++;
-                col--;
+            if (streak >= winStreak) {
+                return mark;
             }
         }
-        return Mark.BLANK;
+        return Mark.BLANK;  // Meaning no winner was found
     }
 
-
     /**
-     * This method checks if someone won a win streak in some diagonal line and returns the winner.
-     * If the game is still played it returns the Blank mark.
-     * @return X, O or Blank
+     * This method creates the board a game of the given size is played on: a Board, or a SparseBoard
+     for boards of SPARSE_BOARD_SIZE and up, where only a few of the cells are ever marked.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak of the game.
+     * @return the new empty board.
      */
-    private Mark checkDiagonal(Board board) {
-        // The following for loop will check the frame of the board
-        // It checks the right diagonals of the first column, the right and left diagonals of the first row,
-        // and the left diagonals of the last column - covering all the diagonals.
-        for (int i = 0; i < this.board_size; i++) {
-            Mark firstColResult = checkDiagonalByCoordinate(board, i, 0, RIGHT_DIAGONAL);
-            Mark firstRowResultRight = checkDiagonalByCoordinate(board, 0, i, RIGHT_DIAGONAL);
-            Mark firstRowResultLeft = checkDiagonalByCoordinate(board, 0, i, LEFT_DIAGONAL);
-            Mark lastColResult = checkDiagonalByCoordinate(board, i, board_size - 1, LEFT_DIAGONAL);
-            if (firstColResult == Mark.X || firstColResult == Mark.O) {
-                return firstColResult;
-            } else if (firstRowResultRight == Mark.X || firstRowResultRight == Mark.O) {
-                return firstRowResultRight;
-            } else if (firstRowResultLeft == Mark.X || firstRowResultLeft == Mark.O) {
-                return firstRowResultLeft;
-            } else if (lastColResult == Mark.X || lastColResult == Mark.O) {
-                return lastColResult;
-            }
-        }
-        return Mark.BLANK;
+    static Board newBoard(int size, int winStreak) {
+        return size >= SPARSE_BOARD_SIZE ? new SparseBoard(size, winStreak) : new Board(size, winStreak);
     }
 
     /**
-     * This method checks if someone wins and returns the winner.
-     * If the game is still played it returns the Blank mark.
-     * @return X, O or Blank
+     * This method plays a turn on a virtual thread with the deadline of the game. The player plays on
+     a copy of the board, and its move is put on the board of the game only if it finished in time.
+     The deadline counts from the moment the turn starts to run, so a turn that waits for a carrier
+     thread behind the turns of many other games does not lose that time.
+     * The CPU time of the turn is kept for the latency of the player, and is 0 for a turn that did not
+     finish in time, since it is not known then.
+     * @param player - the player to move.
+     * @param board - the board of the game.
+     * @param turnBoard - the board the player plays on.
+     * @param mark - the mark of the player.
+     * @return true if the player finished its turn in time, false if it was interrupted.
      */
-    private Mark checkBoardResult(Board board) {
-
-        Mark checkRow = checkRow(board);
-        Mark checkCol = checkCol(board);
-        Mark checkDiagonal = checkDiagonal(board);
-        if (checkRow == Mark.X || checkRow == Mark.O) {
-            return checkRow;
-        } else if (checkCol == Mark.X || checkCol == Mark.O) {
-            return checkCol;
-        } else if(checkDiagonal == Mark.X || checkDiagonal == Mark.O) {
-            return checkDiagonal;
+    private boolean playTimedTurn(Player player, Board board, Board turnBoard, Mark mark) {
+        this.timedTurnCpuNanos = 0;
+        board.copyInto(turnBoard);
+        RuntimeException[] failure = new RuntimeException[1];
+        long[] cpu = new long[1];
+        CountDownLatch started = new CountDownLatch(1);
+        Thread turn = Thread.ofVirtual().start(() -> {
+            started.countDown();
+            long cpuStart = LatencyHistogram.currentCpuNanos();
+            try {
+                player.playTurn(turnBoard, mark);
+            } catch (RuntimeException e) {
+                failure[0] = e;
+            }
+            cpu[0] = LatencyHistogram.currentCpuNanos() - cpuStart;
+        });
+        try {
+            started.await();
+            if (!turn.join(Duration.ofNanos(this.moveTimeoutNanos))) {
+                // give a player that stops when interrupted the time to do so, before the next game
+                turn.interrupt();
+                turn.join(Duration.ofNanos(this.moveTimeoutNanos));
+                return false;
+            }
+        } catch (InterruptedException e) {
+            turn.interrupt();
+            Thread.currentThread().interrupt();
+            return false;
         }
-
-        return Mark.BLANK;  // Meaning no winner was found
-
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        this.timedTurnCpuNanos = cpu[0];
+        if (turnBoard.getMoveCount() > board.getMoveCount()) {
+            int cell = turnBoard.getMove(board.getMoveCount());
+            board.putMark(mark, cell / this.board_size, cell % this.board_size);
+        }
+        return true;
     }
 
     /**
      * This is the run method that responsible for running a game.
+     * A player that ends its turn without putting a mark, such as a SocketPlayer that keeps answering
+     with taken cells, forfeits the game like a player that runs out of time.
+     * The game ends with a tie as soon as every row, column and diagonal segment of win streak cells
+     has both marks in it, since nobody can win anymore. On a sparse board this is not followed, since
+     it would cost as much as the area of the board.
      * @return the mark of the winner or tie in case of a tie.
      */
 
     public Mark run() {
-        Board board = new Board(this.board_size);
+        Board board = newBoard(this.board_size, this.winStreak);
         Mark[] marks = new Mark[NUMBER_OF_PLAYERS];
         Player[] players = new Player[NUMBER_OF_PLAYERS];
         players[0] = this.playerX;
         players[1] = this.playerO;
         marks[0] = Mark.X;
         marks[1] = Mark.O;
+        Mark winner = Mark.BLANK;
+        this.forfeited = false;
+        Board turnBoard = this.moveTimeoutNanos > 0 ? newBoard(this.board_size, this.winStreak) : null;
+        OpenSegments openSegments = this.board_size < SPARSE_BOARD_SIZE ?
+                new OpenSegments(this.board_size, this.winStreak) : null;
         for (int i = 0; i < this.board_size * this.board_size; i++) {
-            players[i % NUMBER_OF_PLAYERS].playTurn(board, marks[i % NUMBER_OF_PLAYERS]);  // plays a turn
+            int movesBefore = board.getMoveCount();
+            if (turnBoard != null) {
+                long start = System.nanoTime();
+                boolean inTime = playTimedTurn(players[i % NUMBER_OF_PLAYERS], board, turnBoard,
+                        marks[i % NUMBER_OF_PLAYERS]);
+                if (this.latencies != null) {
+                    this.latencies[i % NUMBER_OF_PLAYERS].record(System.nanoTime() - start,
+                            this.timedTurnCpuNanos);
+                }
+                if (!inTime) {   // the player who ran out of time loses
+                    winner = marks[(i + 1) % NUMBER_OF_PLAYERS];
+                    this.forfeited = true;
+                    break;
+                }
+            } else if (this.latencies == null) {
+                players[i % NUMBER_OF_PLAYERS].playTurn(board, marks[i % NUMBER_OF_PLAYERS]);  // plays a turn
+            } else {
+                long cpu = LatencyHistogram.currentCpuNanos();
+                long start = System.nanoTime();
+                players[i % NUMBER_OF_PLAYERS].playTurn(board, marks[i % NUMBER_OF_PLAYERS]);
+                long nanos = System.nanoTime() - start;
+                this.latencies[i % NUMBER_OF_PLAYERS].record(nanos, LatencyHistogram.currentCpuNanos() - cpu);
+            }
             this.renderer.renderBoard(board);   // renders the board
-            Mark winner = checkBoardResult(board);
+            if (board.getMoveCount() == movesBefore) {   // the player who did not put a mark loses
+                winner = marks[(i + 1) % NUMBER_OF_PLAYERS];
+                this.forfeited = true;
+                break;
+            }
+            winner = checkBoardResult(board);
             if(!(winner == Mark.BLANK))   // checks if there's a winner
             {
-                return winner;
+                break;
+            }
+            if (openSegments == null) {
+                continue;
+            }
+            openSegments.place(marks[i % NUMBER_OF_PLAYERS], board.getLastRow(), board.getLastCol());
+            if (openSegments.isDead()) {   // checks if nobody can win anymore
+                break;
+            }
+        }
+        this.renderer.endGame(board);
+        if (this.recorder != null) {
+            int moveCount = board.getMoveCount();
+            int[] moves = new int[moveCount];
+            for (int i = 0; i < moveCount; i++) {
+                moves[i] = board.getMove(i);
             }
+            this.recorder.record(this.board_size, this.winStreak, this.xPlayerId, this.oPlayerId, winner,
+                    moves, moveCount);
         }
-        return Mark.BLANK;
+        return winner;
     }
 
 }
@@ -0,0 +1,139 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameClient class connects bots to a GameServer. Every connection runs on a virtual thread and
+ is played by a Player of PlayerFactory on a board of its own, that follows the moves of the game
+ from the messages of the server (see SocketPlayer).
+ */
+public class GameClient {
+    /**
+     * The GameClient constants
+     */
+    private static final int ADDRESS_IND = 0;
+    private static final int CONNECTIONS_IND = 1;
+    private static final int PLAYER_IND = 2;
+    private static final int MESSAGE_IND = 0;
+    private static final int SIZE_IND = 1;
+    private static final int WIN_STREAK_IND = 2;
+    private static final int MARK_IND = 3;
+    private static final int ROW_IND = 1;
+    private static final int COL_IND = 2;
+    private static final int RESULT_IND = 1;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private final SocketAddress address;
+    private final String playerName;
+    private final LongAdder games = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+
+    /**
+     * The constructor of GameClient.
+     * @param address - the address of the server.
+     * @param playerName - the name of the player of every connection, as PlayerFactory knows it.
+     */
+    public GameClient(SocketAddress address, String playerName) {
+        this.address = address;
+        this.playerName = playerName;
+    }
+
+    /**
+     * Plays a connection until the server closes it.
+     * @throws IOException if the connection fails.
+     */
+    private void playConnection() throws IOException {
+        Player player = new PlayerFactory().buildPlayer(this.playerName);
+        try (SocketChannel channel = SocketChannel.open(this.address)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.US_ASCII));
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.US_ASCII));
+            Board board = null;
+            Mark mark = Mark.BLANK;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] message = line.split(SocketPlayer.SEPARATOR);
+                switch (message[MESSAGE_IND]) {
+                    case SocketPlayer.START:
+                        board = Game.newBoard(Integer.parseInt(message[SIZE_IND]),
+                                Integer.parseInt(message[WIN_STREAK_IND]));
+                        mark = Mark.valueOf(message[MARK_IND]);
+                        break;
+                    case SocketPlayer.TURN:
+                        Mark other = mark == Mark.X ? Mark.O : Mark.X;
+                        board.putMark(other, Integer.parseInt(message[ROW_IND]),
+                                Integer.parseInt(message[COL_IND]));
+                        int before = board.getMoveCount();
+                        player.playTurn(board, mark);
+                        if (board.getMoveCount() == before) {
+                            // a player that did not move plays the first empty cell, on this board too
+                            int freeCell = board.firstFreeCellInRowOrder();
+                            board.putMark(mark, freeCell / board.getSize(), freeCell % board.getSize());
+                        }
+                        int cell = board.getMove(before);
+                        writer.write(SocketPlayer.MOVE + SocketPlayer.SEPARATOR + cell / board.getSize() +
+                                SocketPlayer.SEPARATOR + cell % board.getSize() + "\n");
+                        writer.flush();
+                        break;
+                    case SocketPlayer.END:
+                        this.games.increment();
+                        if (message[RESULT_IND].equals(mark.name())) {
+                            this.wins.increment();
+                        }
+                        break;
+                    case SocketPlayer.INVALID:
+                        throw new IOException("The server refused the move");
+                    default:
+                        throw new IOException("Unexpected message: " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the given number of connections at once and waits for all of them to be played.
+     * @param connections - the number of connections.
+     * @throws InterruptedException if the waiting is interrupted.
+     */
+    public void run(int connections) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>(connections);
+        LongAdder failed = new LongAdder();
+        for (int i = 0; i < connections; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    playConnection();
+                } catch (IOException | RuntimeException e) {
+                    failed.increment();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.out.printf("Connections: %d, failed: %d, games: %d, won: %d, %.0f games/sec%n", connections,
+                failed.sum(), this.games.sum(), this.wins.sum(), this.games.sum() / seconds);
+    }
+
+    /**
+     * The main method of the client.
+     * @param args - the port or the Unix domain socket path of the server, the number of connections
+     and the name of the player of the connections.
+     * @throws InterruptedException if the waiting is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int connections = Integer.parseInt(args[CONNECTIONS_IND]);
+        new GameClient(GameServer.parseAddress(args[ADDRESS_IND]), args[PLAYER_IND].toLowerCase())
+                .run(connections);
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameRecordReader class goes over the games of a file written by GameRecordWriter.
+ * The file is memory-mapped and read like a cursor: next() moves to the following game and the
+ getters describe the current one, reading its moves straight from the mapped file. No object is
+ created per game, so files of millions of games are read at the speed of the disk.
+ */
+public class GameRecordReader implements AutoCloseable {
+    /**
+     * The GameRecordReader constants
+     */
+    private static final long WINDOW_BYTES = 1L << 30;
+    private static final int FILE_HEADER_BYTES = Integer.BYTES + 2 * Byte.BYTES;
+    private static final int SUMMARY_PATH_IND = 0;
+    private static final Mark[] MARKS = Mark.values();
+    private final FileChannel channel;
+    private final long fileSize;
+    private final String[] playerNames;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long movesPosition;
+    private int size;
+    private int winStreak;
+    private int xPlayer;
+    private int oPlayer;
+    private Mark result;
+    private int moveCount;
+    private int moveBytes;
+
+    /**
+     * The constructor of GameRecordReader. It maps the file and reads the names of the players.
+     * @param path - the path of the file.
+     * @throws IOException if the file can not be read or is not a game record file.
+     */
+    public GameRecordReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = this.channel.size();
+        if (this.fileSize < FILE_HEADER_BYTES) {
+            this.channel.close();
+            throw new IOException("Not a game record file: " + path);
+        }
+        mapWindow(0);
+        if (this.window.getInt(0) != GameRecordWriter.MAGIC ||
+                this.window.get(Integer.BYTES) != GameRecordWriter.VERSION) {
+            this.channel.close();
+            throw new IOException("Not a game record file: " + path);
+        }
+        int offset = Integer.BYTES + Byte.BYTES;
+        this.playerNames = new String[this.window.get(offset++) & 0xFF];
+        for (int i = 0; i < this.playerNames.length; i++) {
+            // the length byte of the name and the name itself
+            if (offset >= this.fileSize || offset + 1 + (this.window.get(offset) & 0xFF) > this.fileSize) {
+                this.channel.close();
+                throw new IOException("Truncated game record file: " + path);
+            }
+            int length = this.window.get(offset++) & 0xFF;
+            byte[] bytes = new byte[length];
+            this.window.get(offset, bytes);
+            offset += length;
+            this.playerNames[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        this.position = offset;
+    }
+
+    /**
+     * Moves to the next game of the file.
+     * @return true if there is such a game, false at the end of the file.
+     * @throws IOException if the file can not be read.
+     */
+    public boolean next() throws IOException {
+        if (this.position + GameRecordWriter.GAME_HEADER_BYTES > this.fileSize) {
+            return false;
+        }
+        ensureMapped(this.position, GameRecordWriter.GAME_HEADER_BYTES);
+        int offset = (int) (this.position - this.windowStart);
+        this.size = this.window.getShort(offset);
+        this.winStreak = this.window.getShort(offset + Short.BYTES);
+        this.xPlayer = this.window.get(offset + 2 * Short.BYTES) & 0xFF;
+        this.oPlayer = this.window.get(offset + 2 * Short.BYTES + 1) & 0xFF;
+        this.result = MARKS[this.window.get(offset + 2 * Short.BYTES + 2)];
+        this.moveCount = this.window.getInt(offset + 2 * Short.BYTES + 3);
+        this.moveBytes = GameRecordWriter.bytesPerMove(this.size);
+        this.movesPosition = this.position + GameRecordWriter.GAME_HEADER_BYTES;
+        this.position = this.movesPosition + (long) this.moveCount * this.moveBytes;
+        ensureMapped(this.movesPosition, this.moveCount * this.moveBytes);
+        return true;
+    }
+
+    /**
+     * Returns a move of the current game.
+     * @param i - the number of the move, from 0 to getMoveCount() - 1
+     * @return the cell that was played, as row * size + col.
+     */
+    public int getMove(int i) {
+        int offset = (int) (this.movesPosition - this.windowStart) + i * this.moveBytes;
+        if (this.moveBytes == Byte.BYTES) {
+            return this.window.get(offset) & 0xFF;
+        } else if (this.moveBytes == Short.BYTES) {
+            return this.window.getShort(offset) & 0xFFFF;
+        }
+        return this.window.getInt(offset);
+    }
+
+    /**
+     * Returns the size of the board of the current game.
+     * @return the size of the board.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the win streak of the current game.
+     * @return the win streak.
+     */
+    public int getWinStreak() {
+        return this.winStreak;
+    }
+
+    /**
+     * Returns the index of the name of the player who played X in the current game.
+     * @return the index of the player.
+     */
+    public int getXPlayer() {
+        return this.xPlayer;
+    }
+
+    /**
+     * Returns the index of the name of the player who played O in the current game.
+     * @return the index of the player.
+     */
+    public int getOPlayer() {
+        return this.oPlayer;
+    }
+
+    /**
+     * Returns the result of the current game.
+     * @return the winner, or Blank in case of a tie.
+     */
+    public Mark getResult() {
+        return this.result;
+    }
+
+    /**
+     * Returns the number of moves of the current game.
+     * @return the number of moves.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Returns the names of the players of the file.
+     * @return the names, indexed by the player indices of the games.
+     */
+    public String[] getPlayerNames() {
+        return this.playerNames.clone();
+    }
+
+    /**
+     * Makes sure the given range of the file is inside the mapped window, mapping a new window that
+     starts at the range if it is not.
+     * @param start - the position of the range in the file
+     * @param length - the length of the range
+     * @throws IOException if the file can not be mapped.
+     */
+    private void ensureMapped(long start, int length) throws IOException {
+        if (start < this.windowStart || start + length > this.windowStart + this.window.capacity()) {
+            mapWindow(start);
+        }
+    }
+
+    /**
+     * Maps a window of the file that starts at the given position.
+     * @param start - the position in the file
+     * @throws IOException if the file can not be mapped.
+     */
+    private void mapWindow(long start) throws IOException {
+        this.windowStart = start;
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start,
+                Math.min(WINDOW_BYTES, this.fileSize - start));
+    }
+
+    /**
+     * Closes the file.
+     * @throws IOException if the file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Prints a summary of a game record file: the number of games, the victories of every player and
+     the average number of moves.
+     * @param args - the path of the file
+     * @throws IOException if the file can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(Paths.get(args[SUMMARY_PATH_IND]))) {
+            String[] names = reader.getPlayerNames();
+            long[] wins = new long[names.length];
+            long games = 0, ties = 0, moves = 0;
+            while (reader.next()) {
+                games++;
+                moves += reader.getMoveCount();
+                if (reader.getResult() == Mark.X) {
+                    wins[reader.getXPlayer()]++;
+                } else if (reader.getResult() == Mark.O) {
+                    wins[reader.getOPlayer()]++;
+                } else {
+                    ties++;
+                }
+            }
+            System.out.println("Games: " + games);
+            for (int i = 0; i < names.length; i++) {
+                System.out.println("Player " + (i + 1) + ", " + names[i] + " won: " + wins[i] + " rounds");
+            }
+            System.out.println("Ties: " + ties);
+            System.out.println("Average moves: " + (games == 0 ? 0 : (double) moves / games));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameRecordWriter class appends every game of a tournament to a compact binary file.
+ * The file starts with a header of the names of the players, and every game is written as:
+ size (short), win streak (short), the player of X and the player of O (a byte each, indices of the
+ names), the result (a byte, the ordinal of the winning Mark), the number of moves (int) and the
+ moves themselves as cell indices (row * size + col) of 1, 2 or 4 bytes, the smallest that fits the
+ number of cells of the board. The records are collected in a buffer and written to the file
+ channel when it fills up, and several games may write into the same writer at once.
+ */
+public class GameRecordWriter implements AutoCloseable {
+    /**
+     * The GameRecordWriter constants
+     */
+    static final int MAGIC = 0x54545452;  // "TTTR"
+    static final byte VERSION = 1;
+    static final int GAME_HEADER_BYTES = 11;
+    static final int BYTE_CELLS = 1 << Byte.SIZE;
+    static final int SHORT_CELLS = 1 << Short.SIZE;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /**
+     * The constructor of GameRecordWriter. It creates the file (or empties an existing one) and
+     writes the names of the players.
+     * @param path - the path of the file.
+     * @param playerNames - the names of the players, the games refer to them by their index.
+     * @throws IOException if the file can not be opened or written.
+     * @throws IllegalArgumentException if there are more than 255 players or a name is longer than
+     255 bytes in UTF-8, since their lengths are written as single bytes.
+     */
+    public GameRecordWriter(Path path, String[] playerNames) throws IOException {
+        if (playerNames.length >= BYTE_CELLS) {
+            throw new IllegalArgumentException("A game record file has at most " + (BYTE_CELLS - 1) +
+                    " players");
+        }
+        for (String name : playerNames) {
+            if (name.getBytes(StandardCharsets.UTF_8).length >= BYTE_CELLS) {
+                throw new IllegalArgumentException("A player name is longer than " + (BYTE_CELLS - 1) +
+                        " bytes: " + name);
+            }
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer.putInt(MAGIC);
+        this.buffer.put(VERSION);
+        this.buffer.put((byte) playerNames.length);
+        for (String name : playerNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            this.buffer.put((byte) bytes.length);
+            this.buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Returns the number of bytes a single move takes on a board of the given size.
+     * @param size - the size of the board.
+     * @return 1, 2 or 4.
+     */
+    static int bytesPerMove(int size) {
+        int cells = size * size;
+        if (cells <= BYTE_CELLS) {
+            return Byte.BYTES;
+        }
+        return cells <= SHORT_CELLS ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Appends a finished game to the file.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param xPlayer - the index of the name of the player who played X.
+     * @param oPlayer - the index of the name of the player who played O.
+     * @param result - the winner, or Blank in case of a tie.
+     * @param moves - the cells that were played, in order.
+     * @param moveCount - the number of moves.
+     */
+    public synchronized void record(int size, int winStreak, int xPlayer, int oPlayer, Mark result,
+                                    int[] moves, int moveCount) {
+        int moveBytes = bytesPerMove(size);
+        ensureRoom(GAME_HEADER_BYTES);
+        this.buffer.putShort((short) size);
+        this.buffer.putShort((short) winStreak);
+        this.buffer.put((byte) xPlayer);
+        this.buffer.put((byte) oPlayer);
+        this.buffer.put((byte) result.ordinal());
+        this.buffer.putInt(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            ensureRoom(moveBytes);
+            if (moveBytes == Byte.BYTES) {
+                this.buffer.put((byte) moves[i]);
+            } else if (moveBytes == Short.BYTES) {
+                this.buffer.putShort((short) moves[i]);
+            } else {
+                this.buffer.putInt(moves[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer to the file if it does not have room for the given number of bytes.
+     * @param bytes - the number of bytes about to be put.
+     */
+    private void ensureRoom(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything that is in the buffer to the file.
+     */
+    public synchronized void flush() {
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Writes what is left in the buffer and closes the file.
+     * @throws IOException if the file can not be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        this.channel.close();
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameServer class hosts matches between players that connect to it over a loopback TCP port or
+ a Unix domain socket, and speak the protocol of SocketPlayer.
+ * The connections are paired in the order they arrive, and every pair plays a match of a number of
+ games, alternating X and O, on a virtual thread of its own, so thousands of matches can be played
+ at once. Every few seconds the server prints the matches and the games played per second, and the
+ matches and the games in flight.
+ */
+public class GameServer {
+    /**
+     * The GameServer constants
+     */
+    private static final int ADDRESS_IND = 0;
+    private static final int BOARD_SIZE_IND = 1;
+    private static final int WIN_STREAK_IND = 2;
+    private static final int ROUNDS_NUMBER_IND = 3;
+    private static final int BACKLOG = 1024;
+    private static final long REPORT_INTERVAL_MILLIS = 5000;
+    private static final double MILLIS_PER_SECOND = 1e3;
+    private static final int TWO_PLAYERS = 2;
+    private final int size;
+    private final int winStreak;
+    private final int rounds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger gamesInFlight = new AtomicInteger();
+    private final LongAdder matchesPlayed = new LongAdder();
+    private final LongAdder gamesPlayed = new LongAdder();
+    private final LongAdder matchesFailed = new LongAdder();
+    private SocketPlayer waiting;
+
+    /**
+     * The constructor of GameServer.
+     * @param size - the size of the board of the games.
+     * @param winStreak - the win streak of the games.
+     * @param rounds - the number of games of every match.
+     */
+    public GameServer(int size, int winStreak, int rounds) {
+        this.size = size;
+        this.winStreak = winStreak;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Returns the address to listen on or connect to: a port number of the loopback interface, or
+     the path of a Unix domain socket.
+     * @param address - a port number or a path.
+     * @return the address.
+     */
+    static SocketAddress parseAddress(String address) {
+        if (address.chars().allMatch(Character::isDigit)) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        }
+        return UnixDomainSocketAddress.of(address);
+    }
+
+    /**
+     * Accepts connections forever and pairs them into matches.
+     * @param address - the address to listen on.
+     * @throws IOException if the server socket can not be opened.
+     */
+    public void serve(SocketAddress address) throws IOException {
+        boolean unix = address instanceof UnixDomainSocketAddress;
+        if (unix) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+        try (ServerSocketChannel server = unix ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) :
+                ServerSocketChannel.open()) {
+            server.bind(address, BACKLOG);
+            System.out.println("Serving " + this.size + "x" + this.size + " games on " + address);
+            Thread.ofVirtual().start(this::report);
+            while (true) {
+                SocketChannel channel = server.accept();
+                if (!unix) {
+                    channel.socket().setTcpNoDelay(true);
+                }
+                pair(new SocketPlayer(channel));
+            }
+        }
+    }
+
+    /**
+     * Pairs a new player with the one that waits for an opponent, or makes it wait.
+     * @param player - the new player.
+     */
+    private void pair(SocketPlayer player) {
+        SocketPlayer opponent;
+        synchronized (this) {
+            if (this.waiting == null) {
+                this.waiting = player;
+                return;
+            }
+            opponent = this.waiting;
+            this.waiting = null;
+        }
+        this.inFlight.incrementAndGet();
+        Thread.ofVirtual().start(() -> playMatch(opponent, player));
+    }
+
+    /**
+     * Plays the games of a match and closes the connections of the players. A match that loses one of
+     its players is abandoned.
+     * @param first - the player who plays X in the first game.
+     * @param second - the player who plays O in the first game.
+     */
+    private void playMatch(SocketPlayer first, SocketPlayer second) {
+        SocketPlayer[] players = {first, second};
+        Renderer renderer = new VoidRenderer();
+        try (first; second) {
+            for (int round = 0; round < this.rounds; round++) {
+                SocketPlayer playerX = players[round % TWO_PLAYERS];
+                SocketPlayer playerO = players[(round + 1) % TWO_PLAYERS];
+                Game game = new Game(playerX, playerO, this.size, this.winStreak, renderer);
+                playerX.start(game.getBoardSize(), game.getWinStreak(), Mark.X);
+                playerO.start(game.getBoardSize(), game.getWinStreak(), Mark.O);
+                Mark winner;
+                this.gamesInFlight.incrementAndGet();
+                try {
+                    winner = game.run();
+                } finally {
+                    this.gamesInFlight.decrementAndGet();
+                }
+                playerX.end(winner);
+                playerO.end(winner);
+                this.gamesPlayed.increment();
+            }
+            this.matchesPlayed.increment();
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            this.matchesFailed.increment();
+        } finally {
+            this.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the matches and the games played per second, the matches and the games in flight and the
+     abandoned matches every few seconds.
+     */
+    private void report() {
+        long lastMatches = 0;
+        long lastGames = 0;
+        long lastTime = System.currentTimeMillis();
+        while (true) {
+            try {
+                Thread.sleep(REPORT_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long matches = this.matchesPlayed.sum();
+            long games = this.gamesPlayed.sum();
+            long now = System.currentTimeMillis();
+            double seconds = (now - lastTime) / MILLIS_PER_SECOND;
+            System.out.printf("Matches: %d (%.1f matches/sec), games: %d (%.0f games/sec), in flight: " +
+                            "%d matches, %d games, abandoned: %d%n", matches,
+                    (matches - lastMatches) / seconds, games, (games - lastGames) / seconds,
+                    this.inFlight.get(), this.gamesInFlight.get(), this.matchesFailed.sum());
+            lastMatches = matches;
+            lastGames = games;
+            lastTime = now;
+        }
+    }
+
+    /**
+     * The main method of the server.
+     * @param args - the port or the Unix domain socket path to listen on, the size of the board, the
+     win streak and the number of games of every match.
+     * @throws IOException if the server socket can not be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int size = Integer.parseInt(args[BOARD_SIZE_IND]);
+        int winStreak = Integer.parseInt(args[WIN_STREAK_IND]);
+        int rounds = Integer.parseInt(args[ROUNDS_NUMBER_IND]);
+        new GameServer(size, winStreak, rounds).serve(parseAddress(args[ADDRESS_IND]));
+    }
+}
@@ -1,4 +1,6 @@
 public class GeniusPlayer implements Player{
+    private static final int FIRST_COLUMN = 1;
+
     /**
      * The default constructor of the GeniusPlayer class.
      */
@@ -14,19 +16,10 @@ public class GeniusPlayer implements Player{
      * @param mark - the mark to be put on the board
      */
     public void playTurn(Board board, Mark mark) {
-        boolean playedTurn = false;
-        int cleverRow = 0, cleverCol = 1;  // starting filling the first column
-        while(!playedTurn) {
-            // constantly try playing a turn as long as the position is taken.
-            playedTurn = board.putMark(mark, cleverRow, cleverCol);
-            cleverRow++;
-            if (cleverRow == board.getSize()) {
-                cleverCol++;
-                cleverRow = 0;
-            }
-            if(cleverCol == board.getSize()) {
-                cleverCol = 0;
-            }
+        // starting filling the first column, and column 0 after the last one
+        int cell = board.firstFreeCellInColumnOrder(FIRST_COLUMN % board.getSize());
+        if (cell >= 0) {
+            board.putMark(mark, cell / board.getSize(), cell % board.getSize());
         }
     }
 }
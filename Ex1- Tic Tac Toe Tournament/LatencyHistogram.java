@@ -0,0 +1,156 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts how long the moves of a player take, in logarithmic buckets like
+ an HDR histogram: every power of two of nanoseconds is split into SUB_BUCKETS buckets, so a
+ percentile is known within about 6% at any scale with less than a thousand counters.
+ * The counters are atomic, so the games of a parallel tournament record into the same histogram
+ without locks. It also sums the CPU time of the moves.
+ * A histogram can be copied to an array of SNAPSHOT_LENGTH longs and added from one, which is how the
+ shards of a tournament hand their histograms to the ShardCoordinator.
+ */
+public class LatencyHistogram {
+    /**
+     * The LatencyHistogram constants
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final int MOVES_IND = 0;
+    private static final int CPU_IND = 1;
+    private static final int MAX_IND = 2;
+    private static final int FIRST_BUCKET_IND = 3;
+    static final int SNAPSHOT_LENGTH = FIRST_BUCKET_IND + BUCKETS;
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = threads.isCurrentThreadCpuTimeSupported();
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Returns the CPU time of the current thread, to time a move with.
+     * @return the CPU time in nanoseconds, or 0 if the JVM can not measure it (for virtual threads
+     on some JVMs).
+     */
+    static long currentCpuNanos() {
+        return CPU_TIME_SUPPORTED ? Math.max(0, threads.getCurrentThreadCpuTime()) : 0;
+    }
+
+    /**
+     * Counts a move.
+     * @param nanos - the time the move took.
+     * @param cpu - the CPU time the move took, on the thread that played it.
+     */
+    public void record(long nanos, long cpu) {
+        this.counts.incrementAndGet(bucket(Math.max(0, nanos)));
+        this.moves.increment();
+        this.cpuNanos.add(cpu);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Copies the counters to an array. A histogram that is being recorded into gives a snapshot whose
+     counters may be a few moves apart.
+     * @param snapshot - an array of SNAPSHOT_LENGTH longs
+     */
+    void copyTo(long[] snapshot) {
+        snapshot[MOVES_IND] = getMoveCount();
+        snapshot[CPU_IND] = getCpuNanos();
+        snapshot[MAX_IND] = getMaxNanos();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[FIRST_BUCKET_IND + bucket] = this.counts.get(bucket);
+        }
+    }
+
+    /**
+     * Adds the counters of a snapshot to this histogram.
+     * @param snapshot - an array of SNAPSHOT_LENGTH longs, written by copyTo
+     */
+    void add(long[] snapshot) {
+        this.moves.add(snapshot[MOVES_IND]);
+        this.cpuNanos.add(snapshot[CPU_IND]);
+        this.maxNanos.accumulateAndGet(snapshot[MAX_IND], Math::max);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            this.counts.addAndGet(bucket, snapshot[FIRST_BUCKET_IND + bucket]);
+        }
+    }
+
+    /**
+     * Returns the bucket of a time: times below SUB_BUCKETS have a bucket each, and every power of two
+     above them is split into SUB_BUCKETS buckets by the bits that follow its highest bit.
+     * @param nanos - the time, not negative
+     * @return the index of the bucket
+     */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the largest time that falls into a bucket.
+     * @param bucket - the index of the bucket
+     * @return the time in nanoseconds
+     */
+    private static long highestInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Returns the time that the given part of the moves took at most.
+     * @param percentile - a number between 0 and 100
+     * @return the time in nanoseconds, or 0 if no move was counted.
+     */
+    public long getPercentile(double percentile) {
+        long total = getMoveCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestInBucket(bucket), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Returns the number of moves counted.
+     * @return the number of moves.
+     */
+    public long getMoveCount() {
+        return this.moves.sum();
+    }
+
+    /**
+     * Returns the time of the slowest move.
+     * @return the time in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Returns the CPU time of all the moves.
+     * @return the CPU time in nanoseconds.
+     */
+    public long getCpuNanos() {
+        return this.cpuNanos.sum();
+    }
+}
@@ -0,0 +1,279 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The League class plays a round robin league between any number of players in a single program.
+ * Every pair of players plays the same number of rounds, alternating X and O like in a tournament.
+ The rounds of all the pairs are split into chunks that run in parallel, and the Elo rating of every
+ player is updated with the results of the chunks in the order the chunks were made, whatever order
+ they finish in, so a seeded league always prints the same leaderboard. Every worker thread builds
+ each player once and keeps it for all its chunks. At the end a leaderboard is printed.
+ */
+public class League {
+    /**
+     * The League constants
+     */
+    private static final int ROUNDS_NUMBER_IND = 0;
+    private static final int BOARD_SIZE_IND = 1;
+    private static final int WIN_STREAK_IND = 2;
+    private static final int FIRST_PLAYER_IND = 3;
+    private static final String THREADS_OPTION = "--threads";
+    private static final String SEED_OPTION = "--seed";
+    private static final String HUMAN_PLAYER = "human";
+    private static final String NONE_RENDERER = "none";
+    private static final String NOT_ENOUGH_PLAYERS = "A league needs at least two players.";
+    private static final String HUMAN_IN_LEAGUE = "Human players can not play in a league.";
+    private static final int MINIMAL_PLAYERS = 2;
+    private static final int CHUNK_ROUNDS = 100;
+    private static final double INITIAL_RATING = 1500;
+    private static final double K_FACTOR = 16;
+    private static final double ELO_SCALE = 400;
+    private static final double DRAW_SCORE = 0.5;
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private final String[] playerNames;
+    private final int rounds;
+    private final int size;
+    private final int winStreak;
+    private final double[] ratings;
+    private final int[] wins;
+    private final int[] losses;
+    private final int[] ties;
+    private final ThreadLocal<Player[]> workerPlayers;
+    private boolean seeded = false;
+    private long seed;
+
+    /**
+     * The constructor of the League class.
+     * @param playerNames - the names of the players, as PlayerFactory knows them.
+     * @param rounds - the number of rounds every pair of players plays.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     */
+    public League(String[] playerNames, int rounds, int size, int winStreak) {
+        this.playerNames = playerNames;
+        this.rounds = rounds;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.ratings = new double[playerNames.length];
+        Arrays.fill(this.ratings, INITIAL_RATING);
+        this.wins = new int[playerNames.length];
+        this.losses = new int[playerNames.length];
+        this.ties = new int[playerNames.length];
+        this.workerPlayers = ThreadLocal.withInitial(() -> new Player[playerNames.length]);
+    }
+
+    /**
+     * This function makes the rounds of the league reproducible, like Tournament.setSeed.
+     * @param seed - the seed of the league.
+     */
+    public void setSeed(long seed) {
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * This function plays all the pairs of the league on the given number of threads and prints the
+     leaderboard.
+     * @param threads - the number of threads to use.
+     */
+    public void playLeague(int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ExecutorCompletionService<int[]> completion = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        int chunks = 0;
+        int pair = 0;
+        Renderer renderer = new RendererFactory().buildRenderer(NONE_RENDERER, this.size);
+        for (int first = 0; first < this.playerNames.length; first++) {
+            for (int second = first + 1; second < this.playerNames.length; second++) {
+                Tournament pairTournament = new Tournament(this.rounds);
+                if (this.seeded) {
+                    // every pair gets its own seed, so its rounds do not repeat the ones of other pairs
+                    pairTournament.setSeed(this.seed + pair++);
+                }
+                for (int from = 0; from < this.rounds; from += CHUNK_ROUNDS) {
+                    submitChunk(completion, pairTournament, renderer, chunks, first, second, from,
+                            Math.min(this.rounds, from + CHUNK_ROUNDS));
+                    chunks++;
+                }
+            }
+        }
+        long games = 0;
+        long lastProgress = start;
+        int[][] results = new int[chunks][];
+        int nextToRate = 0;
+        try {
+            for (int i = 0; i < chunks; i++) {
+                int[] result = completion.take().get();
+                results[result[0]] = result;
+                // rate the chunks in their order, as soon as all the chunks before them are done
+                while (nextToRate < chunks && results[nextToRate] != null) {
+                    games += updateRatings(results[nextToRate]);
+                    results[nextToRate++] = null;
+                }
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    System.out.println(games + " games, " + gamesPerSecond(games, now - start) +
+                            " games/sec");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        printLeaderboard(games, System.nanoTime() - start);
+    }
+
+    /**
+     * Submits a chunk of the rounds of a pair, played by the players of the worker that runs it. The
+     result of the chunk starts with the index of the chunk and the indices of the two players,
+     followed by the victories of each of them and the ties.
+     * @param completion - the completion service of the league
+     * @param pairTournament - the tournament of the pair
+     * @param renderer - the renderer of the games, which draws nothing
+     * @param chunk - the index of the chunk
+     * @param first - the index of the first player
+     * @param second - the index of the second player
+     * @param from - the index of the first round of the chunk
+     * @param to - the index after the last round of the chunk
+     */
+    private void submitChunk(ExecutorCompletionService<int[]> completion, Tournament pairTournament,
+                             Renderer renderer, int chunk, int first, int second, int from, int to) {
+        completion.submit(() -> {
+            Player[] players = {getWorkerPlayer(first), getWorkerPlayer(second)};
+            String[] names = {this.playerNames[first], this.playerNames[second]};
+            int[] results = pairTournament.playRounds(from, to, players, names, this.size, this.winStreak,
+                    renderer);
+            return new int[]{chunk, first, second, results[RoundsTask.FIRST_PLAYER_WINS],
+                    results[RoundsTask.SECOND_PLAYER_WINS], results[RoundsTask.TIES]};
+        });
+    }
+
+    /**
+     * Returns the player of the calling worker thread for the given index, building it the first time.
+     * The two players of a chunk have different indices, so they are never the same object.
+     * @param index - the index of the player
+     * @return the player
+     */
+    private Player getWorkerPlayer(int index) {
+        Player[] players = this.workerPlayers.get();
+        if (players[index] == null) {
+            players[index] = new PlayerFactory().buildPlayer(this.playerNames[index]);
+        }
+        return players[index];
+    }
+
+    /**
+     * Updates the counters and the Elo ratings of the two players of a chunk. The games of the chunk
+     are rated one after the other, each with the average score of the chunk.
+     * @param result - the index of the chunk, the indices of the players, their victories and the ties
+     * @return the number of games of the chunk
+     */
+    private int updateRatings(int[] result) {
+        int first = result[1];
+        int second = result[2];
+        int firstWins = result[3];
+        int secondWins = result[4];
+        int chunkTies = result[5];
+        int games = firstWins + secondWins + chunkTies;
+        this.wins[first] += firstWins;
+        this.losses[first] += secondWins;
+        this.ties[first] += chunkTies;
+        this.wins[second] += secondWins;
+        this.losses[second] += firstWins;
+        this.ties[second] += chunkTies;
+        double score = (firstWins + DRAW_SCORE * chunkTies) / games;
+        for (int i = 0; i < games; i++) {
+            double expected = 1 / (1 + Math.pow(10,
+                    (this.ratings[second] - this.ratings[first]) / ELO_SCALE));
+            double change = K_FACTOR * (score - expected);
+            this.ratings[first] += change;
+            this.ratings[second] -= change;
+        }
+        return games;
+    }
+
+    /**
+     * Prints the players sorted by their rating, and the throughput of the league.
+     * @param games - the number of games played
+     * @param nanos - the time the league took
+     */
+    private void printLeaderboard(long games, long nanos) {
+        Integer[] order = new Integer[this.playerNames.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> this.ratings[i]).reversed());
+        System.out.println("######### Leaderboard #########");
+        for (int rank = 0; rank < order.length; rank++) {
+            int i = order[rank];
+            System.out.println((rank + 1) + ". " + this.playerNames[i] + " " +
+                    Math.round(this.ratings[i]) + " (won: " + this.wins[i] + ", lost: " +
+                    this.losses[i] + ", ties: " + this.ties[i] + ")");
+        }
+        System.out.println(games + " games, " + gamesPerSecond(games, nanos) + " games/sec");
+    }
+
+    /**
+     * Returns the throughput of the league.
+     * @param games - the number of games played
+     * @param nanos - the time it took
+     * @return the number of games per second
+     */
+    private static long gamesPerSecond(long games, long nanos) {
+        return nanos == 0 ? 0 : Math.round(games * NANOS_PER_SECOND / nanos);
+    }
+
+    /**
+     * This is the main method of the league. Its arguments are the number of rounds of every pair,
+     the size of the board, the win streak and the names of the players, optionally followed by
+     "--threads N" (N = 0 for all the available processors) and "--seed S".
+     * @param args - the arguments of the main method
+     */
+    public static void main(String[] args) {
+        int rounds = Integer.parseInt(args[ROUNDS_NUMBER_IND]);
+        int boardSize = Integer.parseInt(args[BOARD_SIZE_IND]);
+        int winStreak = Integer.parseInt(args[WIN_STREAK_IND]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean seeded = false;
+        long seed = 0;
+        List<String> names = new ArrayList<>();
+        for (int i = FIRST_PLAYER_IND; i < args.length; i++) {
+            if (args[i].equals(THREADS_OPTION) && i + 1 < args.length) {
+                int requested = Integer.parseInt(args[++i]);
+                threads = requested > 0 ? requested : threads;
+            } else if (args[i].equals(SEED_OPTION) && i + 1 < args.length) {
+                seeded = true;
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equalsIgnoreCase(HUMAN_PLAYER)) {
+                System.out.println(HUMAN_IN_LEAGUE);
+                return;
+            } else if (!PlayerFactory.isPlayerName(args[i])) {
+                System.out.println(Constants.UNKNOWN_PLAYER_NAME);
+                return;
+            } else {
+                names.add(args[i].toLowerCase());
+            }
+        }
+        if (names.size() < MINIMAL_PLAYERS) {
+            System.out.println(NOT_ENOUGH_PLAYERS);
+            return;
+        }
+        League league = new League(names.toArray(new String[0]), rounds, boardSize, winStreak);
+        if (seeded) {
+            league.setSeed(seed);
+        }
+        league.playLeague(threads);
+    }
+}
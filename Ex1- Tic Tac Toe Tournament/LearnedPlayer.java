@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * class LearnedPlayer represents a player that plays the move whose resulting position (afterstate)
+ has the highest value in a ValueTable. The value of a position is the chance of winning of the
+ player who just moved, learned by TdTrainer in games against itself.
+ * A player built by PlayerFactory uses the checkpoint of the board in the working directory, loaded
+ once and shared by all the LearnedPlayers. A training player also explores random moves and
+ remembers the positions it played, and learn() moves the value of each of them towards the value
+ of the next one, and the last one towards the result of the game (temporal difference learning).
+ * The player follows the moves of the game from the move history of the board, so a turn only
+ updates the keys of the cells that changed since its last turn.
+ */
+public class LearnedPlayer implements Player {
+    /**
+     * The LearnedPlayer constants
+     */
+    static final float WIN_VALUE = 1f;
+    static final float LOSS_VALUE = 0f;
+    private static final int MIN_TABLE_BITS = 10;
+    private static final int INITIAL_PLAYED = 16;
+    private static final Map<String, ValueTable> tables = new ConcurrentHashMap<>();
+    private ValueTable table;
+    private final boolean training;
+    private final double explorationRate;
+    private final float learningRate;
+    private PositionKey key;
+    private Board board;
+    private int seenMoves;
+    private long[] played = new long[INITIAL_PLAYED];
+    private int[] candidates = new int[INITIAL_PLAYED];
+    private int playedCount;
+
+    /**
+     * A default constructor for the LearnedPlayer class, that plays with the checkpoint of the board
+     and does not learn.
+     */
+    public LearnedPlayer() {
+        this(null, 0, 0);
+    }
+
+    /**
+     * The constructor of a training LearnedPlayer.
+     * @param table - the table to play with and learn into.
+     * @param explorationRate - the chance of playing a random move instead of the best one.
+     * @param learningRate - how far learn() moves a value towards its target, between 0 and 1.
+     */
+    public LearnedPlayer(ValueTable table, double explorationRate, float learningRate) {
+        this.table = table;
+        this.training = table != null;
+        this.explorationRate = explorationRate;
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Returns the table of a board, loading its checkpoint the first time it is needed.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @return the table, which is empty if the board has no checkpoint.
+     */
+    private static ValueTable getTable(int size, int winStreak) {
+        return tables.computeIfAbsent(ValueTable.fileName(size, winStreak), name -> {
+            Path path = Paths.get(name);
+            if (Files.exists(path)) {
+                try {
+                    return ValueTable.load(path, MIN_TABLE_BITS);
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                }
+            } else {
+                System.err.println("No value table " + name + ", run TdTrainer " + size + " " + winStreak);
+            }
+            return new ValueTable(size, winStreak, MIN_TABLE_BITS);
+        });
+    }
+
+    /**
+     * Brings the key up to date with the board: starts over on a new board, or else applies the moves
+     played since the last turn.
+     * @param board - the board
+     */
+    private void follow(Board board) {
+        int size = board.getSize();
+        if (this.key == null || this.key.getSize() != size) {
+            this.key = new PositionKey(size);
+        }
+        if (board != this.board || board.getMoveCount() < this.seenMoves) {
+            this.board = board;
+            this.key.reset(board);
+            this.playedCount = 0;
+        } else {
+            for (int i = this.seenMoves; i < board.getMoveCount(); i++) {
+                int cell = board.getMove(i);
+                this.key.place(board.getMark(cell / size, cell % size), cell);
+            }
+        }
+        this.seenMoves = board.getMoveCount();
+    }
+
+    /**
+     * This function gets a board and a mark and plays a LearnedPlayer turn: a winning move if there
+     is one, or else the move to the position of the highest value, or a random move when exploring.
+     * @param board - the board
+     * @param mark - the mark to be put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        if (!this.training && board != this.board) {
+            this.table = getTable(board.getSize(), board.getWinStreak());
+        }
+        follow(board);
+        int size = board.getSize();
+        int candidates = board.getCandidateCount();
+        if (candidates == 0) {
+            return;
+        }
+        if (this.candidates.length < candidates) {
+            this.candidates = new int[Math.max(candidates, this.candidates.length * 2)];
+        }
+        for (int i = 0; i < candidates; i++) {   // trying a move reorders the candidates of the board
+            this.candidates[i] = board.getCandidate(i);
+        }
+        int bestCell = -1;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (this.explorationRate > 0 && random.nextDouble() < this.explorationRate) {
+            bestCell = this.candidates[random.nextInt(candidates)];
+        } else {
+            for (int i = 0; i < candidates; i++) {
+                int cell = this.candidates[i];
+                int row = cell / size;
+                int col = cell % size;
+                board.push(mark, row, col);
+                boolean wins = Game.checkLastMove(board, row, col, board.getWinStreak()) == mark;
+                board.pop();
+                if (wins) {
+                    bestCell = cell;
+                    break;
+                }
+                this.key.place(mark, cell);
+                float value = this.table.get(this.key.getKey());
+                this.key.remove(mark, cell);
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestCell = cell;
+                }
+            }
+        }
+        this.key.place(mark, bestCell);
+        if (this.training) {
+            if (this.playedCount == this.played.length) {
+                this.played = Arrays.copyOf(this.played, this.played.length * 2);
+            }
+            this.played[this.playedCount++] = this.key.getKey();
+        }
+        board.putMark(mark, bestCell / size, bestCell % size);
+        this.seenMoves = board.getMoveCount();
+    }
+
+    /**
+     * Learns from the positions this player played in the game that just ended, from the last to the
+     first, so the result reaches all of them in one game.
+     * @param result - the value of the end of the game for this player: WIN_VALUE, LOSS_VALUE or a
+     value in between for a tie.
+     */
+    public void learn(float result) {
+        float target = result;
+        for (int i = this.playedCount - 1; i >= 0; i--) {
+            float value = this.table.get(this.played[i]);
+            value += this.learningRate * (target - value);
+            this.table.put(this.played[i], value);
+            target = value;
+        }
+        this.playedCount = 0;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * class MctsPlayer represents a player that chooses its moves by Monte Carlo Tree Search.
+ * Every thread of the player builds a tree of its own from the current position with UCT selection
+ and random playouts until the time budget of the move runs out (root parallelism), and the player
+ plays the move that was visited the most by all the trees together.
+ * The calling thread searches the first tree and the other trees run on a pool of daemon threads
+ that all the MctsPlayers share, so players that are built for every chunk of a tournament do not
+ leave threads behind.
+ */
+public class MctsPlayer implements Player {
+    /**
+     * The MctsPlayer constants
+     */
+    private static final long DEFAULT_MOVE_TIME_MILLIS = 100;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int TREE_CAPACITY = 1 << 18;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final ExecutorService SEARCH_POOL = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);  // the search threads must not keep the program alive
+                return thread;
+            });
+    private final long moveTimeNanos;
+    private final int threads;
+    private final SplittableRandom random = new SplittableRandom();
+    private final List<Future<?>> searches = new ArrayList<>();
+    private MctsTree[] trees;
+    private int[] visits = new int[0];
+    private int size = -1;
+    private int winStreak = -1;
+
+    /**
+     * A default constructor for MctsPlayer, which searches for a fixed time on every move with a
+     thread for every available processor.
+     */
+    public MctsPlayer() {
+        this(DEFAULT_MOVE_TIME_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A constructor for MctsPlayer.
+     * @param moveTimeMillis - the time to search on every move, in milliseconds.
+     * @param threads - the number of threads that search in parallel.
+     */
+    public MctsPlayer(long moveTimeMillis, int threads) {
+        this.moveTimeNanos = moveTimeMillis * NANOS_PER_MILLI;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * The playTurn function searches the position on all the threads until the time budget runs out
+     and puts the mark on the most visited cell.
+     * The visits are summed by the place of the move among the candidates of the board, since every
+     tree expands its root from a copy of the board, with the candidates in the same order. On a
+     sparse board this costs as much as the candidates and not as the area of the board.
+     * @param board - the board
+     * @param mark - the mark to put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        prepare(board);
+        long deadline = System.nanoTime() + this.moveTimeNanos;
+        this.searches.clear();
+        for (int i = 1; i < this.trees.length; i++) {
+            MctsTree tree = this.trees[i];
+            this.searches.add(SEARCH_POOL.submit(() -> tree.search(board, mark, deadline)));
+        }
+        this.trees[0].search(board, mark, deadline);
+        try {
+            for (Future<?> search : this.searches) {
+                search.get();
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> search : this.searches) {
+                search.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            return;   // the turn was given up, so there is no move to play
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        int candidates = board.getCandidateCount();
+        if (candidates == 0) {
+            return;
+        }
+        if (this.visits.length < candidates) {
+            this.visits = new int[Math.max(candidates, this.visits.length * 2)];
+        }
+        Arrays.fill(this.visits, 0, candidates, 0);
+        for (MctsTree tree : this.trees) {
+            tree.addRootVisits(this.visits);
+        }
+        int best = 0;
+        for (int i = 1; i < candidates; i++) {
+            if (this.visits[i] > this.visits[best]) {
+                best = i;
+            }
+        }
+        int bestCell = board.getCandidate(best);
+        board.putMark(mark, bestCell / this.size, bestCell % this.size);
+    }
+
+    /**
+     * Builds the trees of the search for the size and win streak of the board, keeping them between
+     moves and games of the same kind.
+     * @param board - the board of the game
+     */
+    private void prepare(Board board) {
+        if (board.getSize() == this.size && board.getWinStreak() == this.winStreak) {
+            return;
+        }
+        this.size = board.getSize();
+        this.winStreak = board.getWinStreak();
+        this.trees = new MctsTree[this.threads];
+        for (int i = 0; i < this.threads; i++) {
+            this.trees[i] = new MctsTree(this.size, this.winStreak, TREE_CAPACITY, EXPLORATION,
+                    this.random.split());
+        }
+    }
+}
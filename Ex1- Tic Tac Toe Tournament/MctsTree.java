@@ -0,0 +1,261 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The MctsTree class is the search tree of a single thread of the MctsPlayer.
+ * The nodes are kept in preallocated arrays and the playouts run on a board of its own that the
+ position is copied into, so a search does not create objects once the tree is built. The path and
+ the candidate cells start small and grow with the longest path and the most candidates seen, so a
+ tree on a sparse board does not hold arrays as large as the board.
+ * A node stores the move that leads to it and the score of the player who made that move.
+ */
+class MctsTree {
+    /**
+     * The MctsTree constants
+     */
+    private static final int UNEXPANDED = -1;
+    private static final byte NOT_TERMINAL = 0;
+    private static final byte WIN = 1;
+    private static final byte DRAW = 2;
+    private static final double WIN_RESULT = 1.0;
+    private static final double DRAW_RESULT = 0.5;
+    private static final int TIME_CHECK_MASK = 63;
+    private static final int ROOT = 0;
+    private static final int INITIAL_BUFFER_LENGTH = 64;
+    private final int size;
+    private final int winStreak;
+    private final int capacity;
+    private final double exploration;
+    private final Board scratch;
+    private final int[] move;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] visits;
+    private final double[] score;
+    private final byte[] terminal;
+    private int[] path;
+    private int[] empties;
+    private final SplittableRandom random;
+    private int nodeCount;
+
+    /**
+     * The constructor of MctsTree.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param capacity - the number of nodes the tree can hold.
+     * @param exploration - the exploration constant of the UCT formula.
+     * @param random - the random generator of the playouts.
+     */
+    MctsTree(int size, int winStreak, int capacity, double exploration, SplittableRandom random) {
+        this.size = size;
+        this.winStreak = winStreak;
+        this.capacity = capacity;
+        this.exploration = exploration;
+        this.random = random;
+        this.scratch = Game.newBoard(size, winStreak);
+        this.move = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.visits = new int[capacity];
+        this.score = new double[capacity];
+        this.terminal = new byte[capacity];
+        this.path = new int[Math.min(size * size + 1, INITIAL_BUFFER_LENGTH)];
+        this.empties = new int[Math.min(size * size, INITIAL_BUFFER_LENGTH)];
+    }
+
+    /**
+     * Builds a new tree from the given position until the deadline.
+     * @param board - the position to search.
+     * @param mark - the mark of the player to move.
+     * @param deadline - the System.nanoTime to stop at.
+     */
+    void search(Board board, Mark mark, long deadline) {
+        this.nodeCount = 1;
+        this.childCount[ROOT] = UNEXPANDED;
+        this.visits[ROOT] = 0;
+        this.score[ROOT] = 0;
+        this.terminal[ROOT] = NOT_TERMINAL;
+        int iterations = 0;
+        while ((++iterations & TIME_CHECK_MASK) != 0 || System.nanoTime() < deadline) {
+            iterate(board, mark);
+        }
+    }
+
+    /**
+     * Adds how many times every move of the root was visited by the last search. The children of the
+     root are the candidates of the searched board in their order, so the i-th child is
+     board.getCandidate(i).
+     * @param candidateVisits - the visits of the candidates, at least as long as the number of
+     candidates.
+     */
+    void addRootVisits(int[] candidateVisits) {
+        for (int i = 0; i < this.childCount[ROOT]; i++) {
+            candidateVisits[i] += this.visits[this.firstChild[ROOT] + i];
+        }
+    }
+
+    /**
+     * Runs a single iteration: selects a path down the tree with UCT, expands its leaf, plays out
+     the rest of the game randomly and updates the scores along the path.
+     * @param board - the position to search.
+     * @param mark - the mark of the player to move at the root.
+     */
+    private void iterate(Board board, Mark mark) {
+        board.copyInto(this.scratch);
+        Mark other = mark == Mark.X ? Mark.O : Mark.X;
+        int node = ROOT;
+        int depth = 0;
+        this.path[0] = ROOT;
+        Mark toMove = mark;
+        while (this.terminal[node] == NOT_TERMINAL && this.childCount[node] > 0) {
+            node = select(node);
+            playNode(node, toMove);
+            toMove = toMove == Mark.X ? Mark.O : Mark.X;
+            depth = addToPath(depth, node);
+        }
+        if (this.terminal[node] == NOT_TERMINAL && this.childCount[node] == UNEXPANDED &&
+                (node == ROOT || this.visits[node] > 0) && expand(node) > 0) {
+            node = this.firstChild[node] + this.random.nextInt(this.childCount[node]);
+            playNode(node, toMove);
+            toMove = toMove == Mark.X ? Mark.O : Mark.X;
+            depth = addToPath(depth, node);
+        }
+        Mark winner;
+        if (this.terminal[node] == WIN) {
+            winner = toMove == Mark.X ? Mark.O : Mark.X;  // the player who made the last move
+        } else if (this.terminal[node] == DRAW) {
+            winner = Mark.BLANK;
+        } else {
+            winner = playout(toMove);
+        }
+        // the node at an odd depth was played by the player to move at the root
+        for (int i = depth; i >= 0; i--) {
+            int pathNode = this.path[i];
+            this.visits[pathNode]++;
+            Mark mover = (i % 2 == 1) ? mark : other;
+            if (winner == mover) {
+                this.score[pathNode] += WIN_RESULT;
+            } else if (winner == Mark.BLANK) {
+                this.score[pathNode] += DRAW_RESULT;
+            }
+        }
+    }
+
+    /**
+     * Puts a node at the end of the path, growing the path if it is full.
+     * @param depth - the depth of the last node of the path
+     * @param node - the node to add
+     * @return the depth of the added node
+     */
+    private int addToPath(int depth, int node) {
+        if (++depth == this.path.length) {
+            this.path = Arrays.copyOf(this.path, depth * 2);
+        }
+        this.path[depth] = node;
+        return depth;
+    }
+
+    /**
+     * Selects the child with the highest UCT value, visiting every child once first.
+     * @param node - the parent node
+     * @return the selected child
+     */
+    private int select(int node) {
+        double logVisits = Math.log(this.visits[node]);
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = this.firstChild[node]; child < this.firstChild[node] + this.childCount[node];
+             child++) {
+            if (this.visits[child] == 0) {
+                return child;
+            }
+            double value = this.score[child] / this.visits[child] +
+                    this.exploration * Math.sqrt(logVisits / this.visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays the move of the node on the scratch board and finds out if the game ended with it.
+     * @param node - the node to play
+     * @param mark - the mark of the player who plays the move
+     */
+    private void playNode(int node, Mark mark) {
+        int row = this.move[node] / this.size;
+        int col = this.move[node] % this.size;
+        this.scratch.putMark(mark, row, col);
+        if (this.visits[node] == 0 && this.childCount[node] == UNEXPANDED) {
+            if (Game.checkLastMove(this.scratch, row, col, this.winStreak) == mark) {
+                this.terminal[node] = WIN;
+            } else if (countEmpties() == 0) {
+                this.terminal[node] = DRAW;
+            }
+        }
+    }
+
+    /**
+     * Adds a child for every candidate cell of the scratch board, if the tree has room for them.
+     * @param node - the node to expand
+     * @return the number of children added
+     */
+    private int expand(int node) {
+        int count = countEmpties();
+        if (this.nodeCount + count > this.capacity) {
+            return 0;
+        }
+        this.firstChild[node] = this.nodeCount;
+        this.childCount[node] = count;
+        for (int i = 0; i < count; i++) {
+            int child = this.nodeCount++;
+            this.move[child] = this.empties[i];
+            this.firstChild[child] = 0;
+            this.childCount[child] = UNEXPANDED;
+            this.visits[child] = 0;
+            this.score[child] = 0;
+            this.terminal[child] = NOT_TERMINAL;
+        }
+        return count;
+    }
+
+    /**
+     * Plays random moves on the scratch board until the game ends.
+     * @param mark - the mark of the player to move
+     * @return the winner, or Blank in case of a tie
+     */
+    private Mark playout(Mark mark) {
+        int count = countEmpties();
+        while (count > 0) {
+            int index = this.random.nextInt(count);
+            int cell = this.empties[index];
+            this.empties[index] = this.empties[--count];
+            int row = cell / this.size;
+            int col = cell % this.size;
+            this.scratch.putMark(mark, row, col);
+            if (Game.checkLastMove(this.scratch, row, col, this.winStreak) == mark) {
+                return mark;
+            }
+            mark = mark == Mark.X ? Mark.O : Mark.X;
+        }
+        return Mark.BLANK;
+    }
+
+    /**
+     * Collects the candidate cells of the scratch board, which are all the empty cells unless the
+     board is sparse.
+     * @return the number of candidate cells
+     */
+    private int countEmpties() {
+        int count = this.scratch.getCandidateCount();
+        if (count > this.empties.length) {
+            this.empties = new int[Math.max(count, this.empties.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            this.empties[i] = this.scratch.getCandidate(i);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+/**
+ * The OpenSegments class follows the segments of a board that a player can still win in.
+ * A segment is a run of win streak cells in a row, a column or a diagonal, and it is open for a
+ player as long as the other player has no mark in it. The class counts the marks of each player in
+ every segment as marks are placed, so it knows at all times how many segments are open for each
+ player. When no segment is open for either of them the game can only end in a tie.
+ * A segment is identified by its direction and its first cell: direction * cells + first cell.
+ * Players use the counts as line patterns too: countPatterns tells for a cell how many open segments
+ through it hold every number of marks of a player, in O(winStreak), and remove lets a search undo
+ its moves.
+ */
+class OpenSegments {
+    /**
+     * The OpenSegments constants
+     */
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private final int size;
+    private final int winStreak;
+    private final int cells;
+    private final short[] xCounts;
+    private final short[] oCounts;
+    private final int segments;
+    private int openForX;
+    private int openForO;
+
+    /**
+     * The constructor of OpenSegments, for an empty board.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     */
+    OpenSegments(int size, int winStreak) {
+        this.size = size;
+        this.winStreak = winStreak;
+        this.cells = size * size;
+        this.xCounts = new short[ROW_STEPS.length * this.cells];
+        this.oCounts = new short[ROW_STEPS.length * this.cells];
+        int starts = Math.max(0, size - winStreak + 1);
+        // rows and columns have size * starts segments each, every diagonal direction starts * starts
+        this.segments = 2 * size * starts + 2 * starts * starts;
+        this.openForX = this.segments;
+        this.openForO = this.segments;
+    }
+
+    /**
+     * Counts a mark that was placed on the board.
+     * @param mark - X or O
+     * @param row - the row of the mark
+     * @param col - the column of the mark
+     */
+    void place(Mark mark, int row, int col) {
+        short[] counts = mark == Mark.X ? this.xCounts : this.oCounts;
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            // the segments through the cell start up to win streak - 1 cells before it
+            for (int back = 0; back < this.winStreak; back++) {
+                int startRow = row - back * rowStep;
+                int startCol = col - back * colStep;
+                if (!isSegmentStart(startRow, startCol, rowStep, colStep)) {
+                    continue;
+                }
+                int segment = direction * this.cells + startRow * this.size + startCol;
+                if (counts[segment]++ == 0) {
+                    // the first mark of a player closes the segment for the other one
+                    if (mark == Mark.X) {
+                        this.openForO--;
+                    } else {
+                        this.openForX--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Uncounts a mark that was removed from the board.
+     * @param mark - X or O
+     * @param row - the row of the mark
+     * @param col - the column of the mark
+     */
+    void remove(Mark mark, int row, int col) {
+        short[] counts = mark == Mark.X ? this.xCounts : this.oCounts;
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            for (int back = 0; back < this.winStreak; back++) {
+                int startRow = row - back * rowStep;
+                int startCol = col - back * colStep;
+                if (!isSegmentStart(startRow, startCol, rowStep, colStep)) {
+                    continue;
+                }
+                int segment = direction * this.cells + startRow * this.size + startCol;
+                if (--counts[segment] == 0) {
+                    // the last mark of a player opens the segment for the other one again
+                    if (mark == Mark.X) {
+                        this.openForO++;
+                    } else {
+                        this.openForX++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Uncounts all the marks, as for an empty board.
+     */
+    void clear() {
+        Arrays.fill(this.xCounts, (short) 0);
+        Arrays.fill(this.oCounts, (short) 0);
+        this.openForX = this.segments;
+        this.openForO = this.segments;
+    }
+
+    /**
+     * Counts the segments through a cell that are open for a player by the number of marks the
+     player has in them.
+     * @param mark - X or O
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @param histogram - set to the number of open segments with every number of marks, of length
+     win streak + 1
+     */
+    void countPatterns(Mark mark, int row, int col, int[] histogram) {
+        short[] counts = mark == Mark.X ? this.xCounts : this.oCounts;
+        short[] otherCounts = mark == Mark.X ? this.oCounts : this.xCounts;
+        Arrays.fill(histogram, 0);
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            for (int back = 0; back < this.winStreak; back++) {
+                int startRow = row - back * rowStep;
+                int startCol = col - back * colStep;
+                if (!isSegmentStart(startRow, startCol, rowStep, colStep)) {
+                    continue;
+                }
+                int segment = direction * this.cells + startRow * this.size + startCol;
+                if (otherCounts[segment] == 0) {
+                    histogram[counts[segment]]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a segment of the given direction may start at the given cell, meaning all of its
+     cells are on the board.
+     * @param row - the row of the first cell
+     * @param col - the column of the first cell
+     * @param rowStep - the row step of the direction
+     * @param colStep - the column step of the direction
+     * @return true if the segment is on the board
+     */
+    private boolean isSegmentStart(int row, int col, int rowStep, int colStep) {
+        int endRow = row + (this.winStreak - 1) * rowStep;
+        int endCol = col + (this.winStreak - 1) * colStep;
+        return row >= 0 && col >= 0 && col < this.size && endRow < this.size &&
+                endCol >= 0 && endCol < this.size;
+    }
+
+    /**
+     * Checks if no player can win anymore.
+     * @return true if no segment is open for X or for O.
+     */
+    boolean isDead() {
+        return this.openForX == 0 && this.openForO == 0;
+    }
+}
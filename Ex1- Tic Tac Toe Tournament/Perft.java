@@ -0,0 +1,211 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Perft class counts every position that can be reached in a game of a given size and win
+ streak, ply by ply, and how many of them are won by X, won by O or drawn, with the rules of Game:
+ a game ends when the last move completes a win streak (Game.checkLastMove) or fills the board.
+ * The positions of a ply are expanded in parallel by PerftTasks on a fork-join pool, and the
+ positions they reach are added to a ConcurrentLongSet, so a position that is reached by several
+ orders of moves (a transposition) is counted and expanded once. A position is kept as a long: the
+ cells of X in the low bits, the cells of O from bit O_SHIFT, and the TERMINAL bit for positions
+ that end the game. This limits the board to MAX_CELLS cells, and a ply may have at most
+ ConcurrentLongSet.MAX_KEYS positions, which limits it to 4x4.
+ * Every win that Game.checkLastMove finds is checked against the whole-board bitboard check
+ Board.hasStreak (the position before the move did not end the game, so the mark has a streak
+ exactly when the move completed one), and a disagreement stops the count.
+ * The counts are exact, so they can check any change to Board or to the win rules, and the
+ positions per second measure the speed of the board and of the win check. For a 3x3 board with a
+ win streak of 3 the positions of the plies are 1, 9, 72, 252, 756, 1260, 1520, 1140, 390 and 78,
+ with 626 wins of X, 316 wins of O and 16 draws.
+ */
+public class Perft {
+    /**
+     * The Perft constants
+     */
+    static final int O_SHIFT = Integer.SIZE;
+    static final long TERMINAL = Long.MIN_VALUE;
+    private static final int MAX_CELLS = O_SHIFT - 1;
+    private static final int SIZE_IND = 0;
+    private static final int WIN_STREAK_IND = 1;
+    private static final int THREADS_IND = 2;
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private final int size;
+    private final int winStreak;
+    private final int cells;
+    private final LongAdder positions = new LongAdder();
+    private final LongAdder xWins = new LongAdder();
+    private final LongAdder oWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+
+    /**
+     * The constructor of Perft.
+     * @param size - the size of the board, with at most MAX_CELLS cells.
+     * @param winStreak - the win streak, corrected like the win streak of a Game.
+     */
+    public Perft(int size, int winStreak) {
+        this.size = size;
+        this.winStreak = Game.correctWinStreak(size, winStreak);
+        this.cells = size * size;
+    }
+
+    /**
+     * Expands a range of the positions of a ply: plays every empty cell of every position, and counts
+     the positions that were reached for the first time.
+     * @param frontier - the positions of the ply that did not end the game.
+     * @param from - the index of the first position to expand.
+     * @param to - the index after the last position to expand.
+     * @param next - the positions of the next ply that were reached so far.
+     */
+    void expand(long[] frontier, int from, int to, ConcurrentLongSet next) {
+        Board board = new Board(this.size, this.winStreak);
+        long positions = 0;
+        long xWins = 0;
+        long oWins = 0;
+        long draws = 0;
+        for (int i = from; i < to; i++) {
+            long key = frontier[i];
+            int xCells = (int) key;
+            int oCells = (int) (key >>> O_SHIFT);
+            for (int cell = 0; cell < this.cells; cell++) {
+                if ((xCells >>> cell & 1) != 0) {
+                    board.push(Mark.X, cell / this.size, cell % this.size);
+                } else if ((oCells >>> cell & 1) != 0) {
+                    board.push(Mark.O, cell / this.size, cell % this.size);
+                }
+            }
+            boolean xToMove = Integer.bitCount(xCells) == Integer.bitCount(oCells);
+            Mark mark = xToMove ? Mark.X : Mark.O;
+            boolean fills = board.getMoveCount() + 1 == this.cells;
+            for (int cell = 0; cell < this.cells; cell++) {
+                if (((xCells | oCells) >>> cell & 1) != 0) {
+                    continue;
+                }
+                int row = cell / this.size;
+                int col = cell % this.size;
+                board.push(mark, row, col);
+                boolean wins = Game.checkLastMove(board, row, col, this.winStreak) == mark;
+                if (wins != board.hasStreak(mark, this.winStreak)) {
+                    throw new IllegalStateException("The win checks disagree after " + mark + " at " +
+                            row + "," + col + " in position " + Long.toHexString(key));
+                }
+                board.pop();
+                long child = key | (xToMove ? 1L << cell : 1L << (O_SHIFT + cell));
+                if (!next.add(wins || fills ? child | TERMINAL : child)) {
+                    continue;   // a transposition of a position that was reached already
+                }
+                positions++;
+                if (wins && xToMove) {
+                    xWins++;
+                } else if (wins) {
+                    oWins++;
+                } else if (fills) {
+                    draws++;
+                }
+            }
+            while (board.pop() >= 0) {
+                // takes back the marks of the position
+            }
+        }
+        this.positions.add(positions);
+        this.xWins.add(xWins);
+        this.oWins.add(oWins);
+        this.draws.add(draws);
+    }
+
+    /**
+     * Returns the most positions a ply may have: the ways to choose the cells of X and then of O.
+     * @param ply - the number of marks on the board.
+     * @return the number of positions.
+     */
+    private long maxPositions(int ply) {
+        int xMarks = (ply + 1) / 2;
+        return binomial(this.cells, xMarks) * binomial(this.cells - xMarks, ply - xMarks);
+    }
+
+    /**
+     * Checks that the positions of every ply fit in a ConcurrentLongSet.
+     * @return true if no ply may have more than ConcurrentLongSet.MAX_KEYS positions.
+     */
+    boolean fitsInSets() {
+        for (int ply = 1; ply <= this.cells; ply++) {
+            if (maxPositions(ply) > ConcurrentLongSet.MAX_KEYS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a binomial coefficient.
+     * @param n - the number of items
+     * @param k - the number of items to choose
+     * @return n choose k.
+     */
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    /**
+     * Counts the positions of every ply and prints them.
+     * @param threads - the number of threads to use.
+     */
+    public void run(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        long totalPositions = 1;
+        long totalX = 0;
+        long totalO = 0;
+        long totalDraws = 0;
+        System.out.printf("%4s %12s %12s %12s %12s%n", "Ply", "Positions", "X wins", "O wins", "Draws");
+        System.out.printf("%4d %12d %12d %12d %12d%n", 0, 1, 0, 0, 0);
+        try {
+            long[] frontier = {0};   // the empty board
+            for (int ply = 1; ply <= this.cells && frontier.length > 0; ply++) {
+                ConcurrentLongSet next = new ConcurrentLongSet(Math.min(maxPositions(ply),
+                        (long) frontier.length * (this.cells - ply + 1)));
+                int threshold = Math.max(1, frontier.length / (threads * CHUNKS_PER_THREAD));
+                pool.invoke(new PerftTask(this, frontier, 0, frontier.length, threshold, next));
+                System.out.printf("%4d %12d %12d %12d %12d%n", ply, this.positions.sum(), this.xWins.sum(),
+                        this.oWins.sum(), this.draws.sum());
+                totalPositions += this.positions.sumThenReset();
+                totalX += this.xWins.sumThenReset();
+                totalO += this.oWins.sumThenReset();
+                totalDraws += this.draws.sumThenReset();
+                frontier = next.toArray(TERMINAL);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.out.printf("%4s %12d %12d %12d %12d%n", "All", totalPositions, totalX, totalO, totalDraws);
+        System.out.printf("%.2f s, %.0f positions/sec%n", seconds, totalPositions / seconds);
+    }
+
+    /**
+     * The main method of Perft.
+     * @param args - the size of the board, the win streak and optionally the number of threads,
+     which defaults to the number of processors.
+     */
+    public static void main(String[] args) {
+        int size = Integer.parseInt(args[SIZE_IND]);
+        int winStreak = Integer.parseInt(args[WIN_STREAK_IND]);
+        int threads = args.length > THREADS_IND ? Integer.parseInt(args[THREADS_IND]) :
+                Runtime.getRuntime().availableProcessors();
+        if (size * size > MAX_CELLS) {
+            System.out.println("Perft counts boards of up to " + MAX_CELLS + " cells");
+            return;
+        }
+        Perft perft = new Perft(size, winStreak);
+        if (!perft.fitsInSets()) {
+            System.out.println("Perft counts plies of up to " + ConcurrentLongSet.MAX_KEYS + " positions");
+            return;
+        }
+        perft.run(threads);
+    }
+}
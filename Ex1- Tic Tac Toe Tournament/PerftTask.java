@@ -0,0 +1,49 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The PerftTask class expands a range of the positions of a ply of Perft on a fork-join pool.
+ * A range that is larger than the threshold is split in two halves that run in parallel, and a small
+ enough range is expanded by a single worker with a board of its own.
+ */
+class PerftTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    // tasks only run in the process that made them, so the count and the set are not serialized
+    private final transient Perft perft;
+    private final long[] frontier;
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final transient ConcurrentLongSet next;
+
+    /**
+     * The constructor of PerftTask.
+     * @param perft - the count the positions belong to.
+     * @param frontier - the positions of the ply that did not end the game.
+     * @param from - the index of the first position to expand.
+     * @param to - the index after the last position to expand.
+     * @param threshold - the largest number of positions expanded without splitting the range.
+     * @param next - the positions of the next ply that were reached so far.
+     */
+    PerftTask(Perft perft, long[] frontier, int from, int to, int threshold, ConcurrentLongSet next) {
+        this.perft = perft;
+        this.frontier = frontier;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+        this.next = next;
+    }
+
+    /**
+     * Expands the range of positions, splitting it between workers if it is too large.
+     */
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= this.threshold) {
+            this.perft.expand(this.frontier, this.from, this.to, this.next);
+            return;
+        }
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new PerftTask(this.perft, this.frontier, this.from, middle, this.threshold, this.next),
+                new PerftTask(this.perft, this.frontier, middle, this.to, this.threshold, this.next));
+    }
+}
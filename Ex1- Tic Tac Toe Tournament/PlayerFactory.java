@@ -7,6 +7,13 @@ public class PlayerFactory {
     private static final String WHATEVER_PLAYER = "whatever";
     private static final String CLEVER_PLAYER = "clever";
     private static final String GENIUS_PLAYER = "genius";
+    private static final String ALPHA_BETA_PLAYER = "alphabeta";
+    private static final String MCTS_PLAYER = "mcts";
+    private static final String TABLEBASE_PLAYER = "tablebase";
+    private static final String LEARNED_PLAYER = "learned";
+    private static final String THREAT_PLAYER = "threat";
+    private static final String[] PLAYER_NAMES = {HUMAN_PLAYER, WHATEVER_PLAYER, CLEVER_PLAYER,
+            GENIUS_PLAYER, ALPHA_BETA_PLAYER, MCTS_PLAYER, TABLEBASE_PLAYER, LEARNED_PLAYER, THREAT_PLAYER};
 
     /**
      * Empty Constructor
@@ -15,6 +22,20 @@ public class PlayerFactory {
 
     }
 
+    /**
+     * This method checks if a type of player is one of the known types, without generating it.
+     * @param type - the type of the player.
+     * @return true if buildPlayer knows the type.
+     */
+    public static boolean isPlayerName(String type) {
+        for (String name : PLAYER_NAMES) {
+            if (name.equals(type.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * This method gets the type of player and generates it.
      * In case the type is not one of the known types - it returns null.
@@ -36,6 +57,21 @@ public class PlayerFactory {
             case GENIUS_PLAYER:
                 player = new GeniusPlayer();
                 break;
+            case ALPHA_BETA_PLAYER:
+                player = new AlphaBetaPlayer();
+                break;
+            case MCTS_PLAYER:
+                player = new MctsPlayer();
+                break;
+            case TABLEBASE_PLAYER:
+                player = new TablebasePlayer();
+                break;
+            case LEARNED_PLAYER:
+                player = new LearnedPlayer();
+                break;
+            case THREAT_PLAYER:
+                player = new ThreatSpacePlayer();
+                break;
             default:
                 return null;
         }
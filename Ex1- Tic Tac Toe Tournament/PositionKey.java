@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The PositionKey class keeps a Zobrist key of a position that is the same for all the rotations and
+ reflections of the position, so search players look at every position of a square board only once
+ instead of up to eight times.
+ * It keeps the Zobrist key of each of the eight symmetries of the position and updates all of them
+ as marks are placed and removed, and the canonical key is the smallest of them. A move is stored
+ with a canonical key in the frame of the symmetry that gave the key, and toCanonical and
+ fromCanonical move cells between that frame and the board.
+ * The Zobrist values only depend on the size of the board, so keys of different PositionKeys of the
+ same size can share a table.
+ */
+public class PositionKey {
+    /**
+     * The PositionKey constants
+     */
+    static final int SYMMETRIES = 8;
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+    private final int size;
+    private final int[][] symmetries;
+    private final int[][] inverses;
+    private final long[] xKeys;
+    private final long[] oKeys;
+    private final long[] keys = new long[SYMMETRIES];
+    private int symmetry;
+    private boolean changed;
+
+    /**
+     * The constructor of PositionKey, for an empty board.
+     * @param size - the size of the board.
+     */
+    public PositionKey(int size) {
+        this.size = size;
+        int cells = size * size;
+        this.symmetries = symmetries(size);
+        this.inverses = new int[SYMMETRIES][cells];
+        Random random = new Random(ZOBRIST_SEED + size);
+        long[] xZobrist = new long[cells];
+        long[] oZobrist = new long[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            xZobrist[cell] = random.nextLong();
+            oZobrist[cell] = random.nextLong();
+        }
+        // the keys of a cell in every symmetry are next to each other: cell * SYMMETRIES + symmetry
+        this.xKeys = new long[cells * SYMMETRIES];
+        this.oKeys = new long[cells * SYMMETRIES];
+        for (int s = 0; s < SYMMETRIES; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                int moved = this.symmetries[s][cell];
+                this.inverses[s][moved] = cell;
+                this.xKeys[cell * SYMMETRIES + s] = xZobrist[moved];
+                this.oKeys[cell * SYMMETRIES + s] = oZobrist[moved];
+            }
+        }
+    }
+
+    /**
+     * Returns for each of the eight symmetries of a square board the cell that every cell moves to.
+     * @param size - the size of the board.
+     * @return the cells after each symmetry, indexed by symmetry and cell (row * size + col).
+     */
+    static int[][] symmetries(int size) {
+        int[][] symmetries = new int[SYMMETRIES][size * size];
+        int last = size - 1;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                symmetries[0][cell] = row * size + col;
+                symmetries[1][cell] = col * size + (last - row);            // rotate 90
+                symmetries[2][cell] = (last - row) * size + (last - col);   // rotate 180
+                symmetries[3][cell] = (last - col) * size + row;            // rotate 270
+                symmetries[4][cell] = row * size + (last - col);            // mirror
+                symmetries[5][cell] = (last - row) * size + col;            // flip
+                symmetries[6][cell] = col * size + row;                     // main diagonal
+                symmetries[7][cell] = (last - col) * size + (last - row);   // anti diagonal
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * Returns the size of the board of the key.
+     * @return the size of the board.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Sets the key to the position on a board.
+     * @param board - the board, of the size of the key.
+     */
+    public void reset(Board board) {
+        Arrays.fill(this.keys, 0);
+        for (int cell = 0; cell < this.size * this.size; cell++) {
+            Mark mark = board.getMark(cell / this.size, cell % this.size);
+            if (mark != Mark.BLANK) {
+                place(mark, cell);
+            }
+        }
+        this.changed = true;
+    }
+
+    /**
+     * Updates the key for a mark placed on a cell.
+     * @param mark - X or O
+     * @param cell - the cell, row * size + col
+     */
+    public void place(Mark mark, int cell) {
+        long[] cellKeys = mark == Mark.X ? this.xKeys : this.oKeys;
+        int base = cell * SYMMETRIES;
+        for (int s = 0; s < SYMMETRIES; s++) {
+            this.keys[s] ^= cellKeys[base + s];
+        }
+        this.changed = true;
+    }
+
+    /**
+     * Updates the key for a mark removed from a cell.
+     * @param mark - the mark that was on the cell
+     * @param cell - the cell, row * size + col
+     */
+    public void remove(Mark mark, int cell) {
+        // a Zobrist key is a xor, so removing a mark is placing it again
+        place(mark, cell);
+    }
+
+    /**
+     * Returns the canonical key of the position, the same for all of its symmetries.
+     * @return the key.
+     */
+    public long getKey() {
+        update();
+        return this.keys[this.symmetry];
+    }
+
+    /**
+     * Moves a cell of the board to the frame of the canonical key.
+     * @param cell - the cell on the board
+     * @return the cell in the canonical frame
+     */
+    public int toCanonical(int cell) {
+        update();
+        return this.symmetries[this.symmetry][cell];
+    }
+
+    /**
+     * Moves a cell of the frame of the canonical key back to the board.
+     * @param cell - the cell in the canonical frame
+     * @return the cell on the board
+     */
+    public int fromCanonical(int cell) {
+        update();
+        return this.inverses[this.symmetry][cell];
+    }
+
+    /**
+     * Finds the symmetry with the smallest key, if the position changed since it was last found.
+     */
+    private void update() {
+        if (!this.changed) {
+            return;
+        }
+        int best = 0;
+        for (int s = 1; s < SYMMETRIES; s++) {
+            if (this.keys[s] < this.keys[best]) {
+                best = s;
+            }
+        }
+        this.symmetry = best;
+        this.changed = false;
+    }
+}
@@ -7,4 +7,12 @@ public interface Renderer {
      * @param board - console or none
      */
     public void renderBoard(Board board);
+
+    /**
+     * The endGame method is called once when a game ends, however it ended, with the final board, so
+     a renderer that skips some boards can draw the last one. It does nothing by default.
+     * @param board - the final board of the game
+     */
+    default void endGame(Board board) {
+    }
 }
@@ -4,6 +4,7 @@ public class RendererFactory {
      */
     private static final String CONSOLE_RENDERER = "console";
     private static final String NONE_RENDERER = "none";
+    private static final String DIFF_RENDERER = "diff";
     /**
      * Empty constructor
      */
@@ -24,6 +25,9 @@ public class RendererFactory {
         else if(type.equals(NONE_RENDERER)) {
             return new VoidRenderer();
         }
+        else if(type.equals(DIFF_RENDERER)) {
+            return new DiffConsoleRenderer(size);
+        }
         else {
             return null;
         }
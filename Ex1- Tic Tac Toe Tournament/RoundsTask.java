@@ -0,0 +1,76 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The RoundsTask class plays a range of tournament rounds on a fork-join pool.
+ * A range that is larger than the threshold is split in two halves that run in parallel,
+ and a small enough range is played by a single worker with its own players, renderer, games and boards.
+ * The result is an array of the victories of the first player, of the second player and the ties.
+ */
+class RoundsTask extends RecursiveTask<int[]> {
+    /**
+     * The indices of the result array.
+     */
+    static final int FIRST_PLAYER_WINS = 0;
+    static final int SECOND_PLAYER_WINS = 1;
+    static final int TIES = 2;
+    private static final int RESULTS_LENGTH = 3;
+    private static final long serialVersionUID = 1L;
+    private final transient Tournament tournament;   // tasks only run in the process that made them
+    private final int fromRound;
+    private final int toRound;
+    private final int threshold;
+    private final int size;
+    private final int winStreak;
+    private final String rendererType;
+    private final String playerName1;
+    private final String playerName2;
+
+    /**
+     * The constructor of RoundsTask.
+     * @param tournament - the tournament the rounds belong to.
+     * @param fromRound - the index of the first round to play.
+     * @param toRound - the index after the last round to play.
+     * @param threshold - the largest number of rounds played without splitting the range.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param rendererType - the type of renderer every worker builds: [none, console].
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - The name of the second player.
+     */
+    RoundsTask(Tournament tournament, int fromRound, int toRound, int threshold, int size, int winStreak,
+               String rendererType, String playerName1, String playerName2) {
+        this.tournament = tournament;
+        this.fromRound = fromRound;
+        this.toRound = toRound;
+        this.threshold = threshold;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.rendererType = rendererType;
+        this.playerName1 = playerName1;
+        this.playerName2 = playerName2;
+    }
+
+    /**
+     * Plays the range of rounds, splitting it between workers if it is too large.
+     * @return the victories of each player and the ties in the range.
+     */
+    @Override
+    protected int[] compute() {
+        if (this.toRound - this.fromRound <= this.threshold) {
+            return this.tournament.playRounds(this.fromRound, this.toRound, this.size, this.winStreak,
+                    this.rendererType, this.playerName1, this.playerName2);
+        }
+        int middle = (this.fromRound + this.toRound) >>> 1;
+        RoundsTask firstHalf = new RoundsTask(this.tournament, this.fromRound, middle, this.threshold,
+                this.size, this.winStreak, this.rendererType, this.playerName1, this.playerName2);
+        RoundsTask secondHalf = new RoundsTask(this.tournament, middle, this.toRound, this.threshold,
+                this.size, this.winStreak, this.rendererType, this.playerName1, this.playerName2);
+        firstHalf.fork();
+        int[] results = secondHalf.compute();
+        int[] firstResults = firstHalf.join();
+        for (int i = 0; i < RESULTS_LENGTH; i++) {
+            results[i] += firstResults[i];
+        }
+        return results;
+    }
+}
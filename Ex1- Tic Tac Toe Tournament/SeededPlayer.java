@@ -0,0 +1,14 @@
+import java.util.SplittableRandom;
+
+/**
+ * The interface SeededPlayer, for players whose moves are random.
+ * A tournament that was given a seed hands such a player its own random stream before every round,
+ so the rounds can be replayed exactly no matter how they are split between threads.
+ */
+public interface SeededPlayer extends Player {
+    /**
+     * The setRandom method gives the player the random generator to use from now on.
+     * @param random - the random generator
+     */
+    void setRandom(SplittableRandom random);
+}
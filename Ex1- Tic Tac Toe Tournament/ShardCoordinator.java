@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * The ShardCoordinator class follows a tournament that is played by several shard processes (see
+ Tournament's "--shard" option), by reading their ShardFile while they play.
+ * Only the shards that started with the run id of the coordinator count, so the results of an
+ earlier run that are still in the file are not taken for this one.
+ * Every second it prints the rounds played by all the shards, the rounds per second and the results
+ so far, and when every shard is done it prints the results of the whole tournament and the latency
+ of each player, merged from the histograms of the shards.
+ */
+public class ShardCoordinator {
+    /**
+     * The ShardCoordinator constants
+     */
+    private static final int PATH_IND = 0;
+    private static final int SHARDS_IND = 1;
+    private static final int RUN_IND = 2;
+    private static final long REPORT_INTERVAL_MILLIS = 1000;
+    private static final double MILLIS_PER_SECOND = 1e3;
+    private static final int TWO_PLAYERS = 2;
+    private static final int RESULTS_LENGTH = 3;
+    private static final double MEDIAN = 50;
+    private static final double P99 = 99;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private final ShardFile shardFile;
+    private final long run;
+    private final long[] results = new long[RESULTS_LENGTH];
+    private final long[] forfeits = new long[TWO_PLAYERS];
+    private long rounds;
+    private long played;
+    private int done;
+
+    /**
+     * The constructor of ShardCoordinator.
+     * @param shardFile - the file of the shards.
+     * @param run - the id of the run to follow.
+     */
+    public ShardCoordinator(ShardFile shardFile, long run) {
+        this.shardFile = shardFile;
+        this.run = run;
+    }
+
+    /**
+     * Sums the counters of all the shards of the run.
+     */
+    private void sum() {
+        this.rounds = 0;
+        this.played = 0;
+        this.done = 0;
+        Arrays.fill(this.results, 0);
+        Arrays.fill(this.forfeits, 0);
+        for (int shard = 0; shard < this.shardFile.getShards(); shard++) {
+            if (this.shardFile.get(shard, ShardFile.RUN) != this.run) {
+                continue;
+            }
+            this.rounds += this.shardFile.get(shard, ShardFile.ROUNDS);
+            for (int i = 0; i < RESULTS_LENGTH; i++) {
+                long count = this.shardFile.get(shard, ShardFile.FIRST_RESULT + i);
+                this.results[i] += count;
+                this.played += count;
+            }
+            for (int i = 0; i < TWO_PLAYERS; i++) {
+                this.forfeits[i] += this.shardFile.get(shard, ShardFile.FIRST_FORFEITS + i);
+            }
+            if (this.shardFile.get(shard, ShardFile.DONE) != 0) {
+                this.done++;
+            }
+        }
+    }
+
+    /**
+     * Prints the progress of the shards every second until all of them are done, and then the
+     results.
+     * @throws InterruptedException if the waiting is interrupted.
+     */
+    public void follow() throws InterruptedException {
+        long lastPlayed = 0;
+        long lastTime = System.currentTimeMillis();
+        while (true) {
+            sum();
+            if (this.done == this.shardFile.getShards()) {
+                break;
+            }
+            long now = System.currentTimeMillis();
+            System.out.printf("Rounds: %d of %d (%.0f rounds/sec), player 1: %d, player 2: %d, ties: %d, " +
+                            "shards done: %d of %d%n", this.played, this.rounds,
+                    (this.played - lastPlayed) * MILLIS_PER_SECOND / Math.max(1, now - lastTime),
+                    this.results[RoundsTask.FIRST_PLAYER_WINS], this.results[RoundsTask.SECOND_PLAYER_WINS],
+                    this.results[RoundsTask.TIES], this.done, this.shardFile.getShards());
+            lastPlayed = this.played;
+            lastTime = now;
+            Thread.sleep(REPORT_INTERVAL_MILLIS);
+        }
+        printResults();
+    }
+
+    /**
+     * Prints the results of the whole tournament.
+     */
+    private void printResults() {
+        System.out.println("######### Results #########");
+        System.out.println("Player 1 won: " + this.results[RoundsTask.FIRST_PLAYER_WINS] + " rounds");
+        System.out.println("Player 2 won: " + this.results[RoundsTask.SECOND_PLAYER_WINS] + " rounds");
+        System.out.println("Ties: " + this.results[RoundsTask.TIES]);
+        if (this.forfeits[0] + this.forfeits[1] > 0) {
+            System.out.println("Forfeits: player 1 " + this.forfeits[0] + ", player 2 " + this.forfeits[1]);
+        }
+        long[] snapshot = new long[LatencyHistogram.SNAPSHOT_LENGTH];
+        for (int player = 0; player < TWO_PLAYERS; player++) {
+            LatencyHistogram latency = new LatencyHistogram();
+            for (int shard = 0; shard < this.shardFile.getShards(); shard++) {
+                this.shardFile.readLatency(shard, player, snapshot);
+                latency.add(snapshot);
+            }
+            if (latency.getMoveCount() == 0) {
+                continue;
+            }
+            System.out.printf("Player %d moves: %d, p50 %.1f us, p99 %.1f us, max %.1f us, CPU %.1f ms%n",
+                    player + 1, latency.getMoveCount(), latency.getPercentile(MEDIAN) / NANOS_PER_MICRO,
+                    latency.getPercentile(P99) / NANOS_PER_MICRO, latency.getMaxNanos() / NANOS_PER_MICRO,
+                    latency.getCpuNanos() / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * The main method of the coordinator.
+     * @param args - the path of the shard file, the number of shards and the id of the run.
+     * @throws IOException if the file can not be opened.
+     * @throws InterruptedException if the waiting is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        try (ShardFile shardFile = new ShardFile(Paths.get(args[PATH_IND]),
+                Integer.parseInt(args[SHARDS_IND]))) {
+            new ShardCoordinator(shardFile, Long.parseLong(args[RUN_IND])).follow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The ShardFile class is a memory-mapped file that the shards of a tournament, each a process of its
+ own that plays a part of the rounds, write their results into, and that a ShardCoordinator reads
+ while they play.
+ * The file has a header and a slot for every shard. A slot holds counters of longs: the rounds of the
+ shard, the victories of each player, the ties, the forfeits of each player, whether the shard is
+ done and the run the shard belongs to, followed by a LatencyHistogram snapshot of each player.
+ The counters are updated with atomic operations on the mapped memory, so the threads of a shard
+ add into its slot without locks, and the other processes see the counters as they change.
+ * Whoever opens the file first creates it, so shards and the coordinator may start in any order.
+ The file is kept between runs, so the shards and the coordinator of a run share a run id, and the
+ slots of a shard that has not started yet, which still hold the results of an earlier run, do not
+ count for it.
+ */
+public class ShardFile implements AutoCloseable {
+    /**
+     * The ShardFile constants
+     */
+    static final int ROUNDS = 0;
+    static final int FIRST_RESULT = 1;   // the victories of each player and the ties, by RoundsTask index
+    static final int FIRST_FORFEITS = 4;
+    static final int DONE = 6;
+    static final int RUN = 7;
+    private static final int FIRST_LATENCY = 8;
+    private static final int TWO_PLAYERS = 2;
+    private static final int SLOT_LONGS = FIRST_LATENCY + TWO_PLAYERS * LatencyHistogram.SNAPSHOT_LENGTH;
+    private static final long MAGIC = 0x5454534844000001L;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SHARDS_OFFSET = Long.BYTES;
+    private static final int HEADER_BYTES = 2 * Long.BYTES;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int shards;
+
+    /**
+     * The constructor of ShardFile, that maps the file, creating it if needed.
+     * @param path - the file.
+     * @param shards - the number of shards of the tournament.
+     * @throws IOException if the file can not be mapped or was made for another number of shards.
+     */
+    public ShardFile(Path path, int shards) throws IOException {
+        this.shards = shards;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long bytes = HEADER_BYTES + (long) shards * SLOT_LONGS * Long.BYTES;
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        // the header is the same for everyone, so it does not matter who writes it first
+        long magic = (long) LONGS.getAcquire(this.buffer, MAGIC_OFFSET);
+        long fileShards = (long) LONGS.getAcquire(this.buffer, SHARDS_OFFSET);
+        if (magic == 0) {
+            LONGS.setRelease(this.buffer, SHARDS_OFFSET, (long) shards);
+            LONGS.setRelease(this.buffer, MAGIC_OFFSET, MAGIC);
+        } else if (magic != MAGIC || fileShards != shards) {
+            this.channel.close();
+            throw new IOException(path + " is not a results file of " + shards + " shards");
+        }
+    }
+
+    /**
+     * Returns the number of shards of the file.
+     * @return the number of shards.
+     */
+    public int getShards() {
+        return this.shards;
+    }
+
+    /**
+     * Returns the offset of a counter in the file.
+     * @param shard - the index of the shard.
+     * @param counter - the index of the counter in the slot.
+     * @return the offset in bytes.
+     */
+    private int offset(int shard, int counter) {
+        return HEADER_BYTES + (shard * SLOT_LONGS + counter) * Long.BYTES;
+    }
+
+    /**
+     * Empties the slot of a shard that starts, and sets its number of rounds and its run. The run is
+     written last, so whoever reads it reads the emptied slot.
+     * @param shard - the index of the shard.
+     * @param run - the id of the run the shard belongs to.
+     * @param rounds - the number of rounds the shard plays.
+     */
+    public void start(int shard, long run, long rounds) {
+        for (int counter = SLOT_LONGS - 1; counter >= 0; counter--) {
+            LONGS.setRelease(this.buffer, offset(shard, counter), 0L);
+        }
+        LONGS.setRelease(this.buffer, offset(shard, ROUNDS), rounds);
+        LONGS.setRelease(this.buffer, offset(shard, RUN), run);
+    }
+
+    /**
+     * Adds to a counter of a shard.
+     * @param shard - the index of the shard.
+     * @param counter - the index of the counter.
+     * @param delta - the number to add.
+     */
+    public void add(int shard, int counter, long delta) {
+        LONGS.getAndAdd(this.buffer, offset(shard, counter), delta);
+    }
+
+    /**
+     * Returns a counter of a shard.
+     * @param shard - the index of the shard.
+     * @param counter - the index of the counter.
+     * @return the value of the counter.
+     */
+    public long get(int shard, int counter) {
+        return (long) LONGS.getAcquire(this.buffer, offset(shard, counter));
+    }
+
+    /**
+     * Marks a shard as done, after all of its results were written.
+     * @param shard - the index of the shard.
+     */
+    public void finish(int shard) {
+        LONGS.setRelease(this.buffer, offset(shard, DONE), 1L);
+    }
+
+    /**
+     * Writes the latency of a player of a shard.
+     * @param shard - the index of the shard.
+     * @param player - the index of the player.
+     * @param snapshot - a LatencyHistogram snapshot.
+     */
+    public void writeLatency(int shard, int player, long[] snapshot) {
+        int first = FIRST_LATENCY + player * LatencyHistogram.SNAPSHOT_LENGTH;
+        for (int i = 0; i < LatencyHistogram.SNAPSHOT_LENGTH; i++) {
+            LONGS.setRelease(this.buffer, offset(shard, first + i), snapshot[i]);
+        }
+    }
+
+    /**
+     * Reads the latency of a player of a shard.
+     * @param shard - the index of the shard.
+     * @param player - the index of the player.
+     * @param snapshot - an array of LatencyHistogram.SNAPSHOT_LENGTH longs to read into.
+     */
+    public void readLatency(int shard, int player, long[] snapshot) {
+        int first = FIRST_LATENCY + player * LatencyHistogram.SNAPSHOT_LENGTH;
+        for (int i = 0; i < LatencyHistogram.SNAPSHOT_LENGTH; i++) {
+            snapshot[i] = (long) LONGS.getAcquire(this.buffer, offset(shard, first + i));
+        }
+    }
+
+    /**
+     * Closes the file. The results stay in it.
+     * @throws IOException if the file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+}
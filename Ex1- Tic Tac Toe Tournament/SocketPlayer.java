@@ -0,0 +1,130 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * class SocketPlayer represents a player that plays from the other side of a socket, such as a bot
+ of GameClient connected to the GameServer.
+ * The protocol is made of text lines, a message and its numbers separated by spaces:
+ * server to player: "START size winStreak X|O" when a game starts, "TURN row col" when it is the
+ turn of the player, with the last move of the other player (or -1 -1 if there is none),
+ "INVALID" if the move can not be played (but not after the last of MAX_INVALID_MOVES invalid moves,
+ which forfeits the game) and "END X|O|TIE" when the game ends.
+ * player to server: "MOVE row col".
+ * The channel is used in blocking mode, so a player waits on a virtual thread of its match for the
+ moves of the other side.
+ */
+public class SocketPlayer implements Player, AutoCloseable {
+    /**
+     * The SocketPlayer constants
+     */
+    static final String START = "START";
+    static final String TURN = "TURN";
+    static final String MOVE = "MOVE";
+    static final String INVALID = "INVALID";
+    static final String END = "END";
+    static final String TIE = "TIE";
+    static final String SEPARATOR = " ";
+    private static final int MAX_INVALID_MOVES = 3;
+    private final SocketChannel channel;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    /**
+     * The constructor of SocketPlayer.
+     * @param channel - the connected channel of the player.
+     */
+    public SocketPlayer(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                StandardCharsets.US_ASCII));
+        this.writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Tells the player that a game starts.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param mark - the mark the player plays.
+     */
+    public void start(int size, int winStreak, Mark mark) {
+        send(START + SEPARATOR + size + SEPARATOR + winStreak + SEPARATOR + mark.name());
+    }
+
+    /**
+     * Tells the player that the game ended.
+     * @param winner - the winner, or Blank in case of a tie.
+     */
+    public void end(Mark winner) {
+        send(END + SEPARATOR + (winner == Mark.BLANK ? TIE : winner.name()));
+    }
+
+    /**
+     * The playTurn function sends the last move of the other player and puts the mark on the cell
+     the player answers with. A player that answers with a taken cell is told so and asked again, and
+     after MAX_INVALID_MOVES such answers it ends its turn without a mark, which forfeits the game.
+     * @param board - the board
+     * @param mark - the mark to put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        send(TURN + SEPARATOR + board.getLastRow() + SEPARATOR + board.getLastCol());
+        for (int attempt = 1; ; attempt++) {
+            String[] move = receive().split(SEPARATOR);
+            if (move.length == 3 && move[0].equals(MOVE) &&
+                    board.putMark(mark, Integer.parseInt(move[1]), Integer.parseInt(move[2]))) {
+                return;
+            }
+            if (attempt == MAX_INVALID_MOVES) {
+                return;   // the END of the forfeited game follows instead of another INVALID
+            }
+            send(INVALID);
+        }
+    }
+
+    /**
+     * Sends a line to the player.
+     * @param line - the line, without the line separator.
+     */
+    private void send(String line) {
+        try {
+            this.writer.write(line);
+            this.writer.write('\n');
+            this.writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a line from the player.
+     * @return the line, without the line separator.
+     */
+    private String receive() {
+        try {
+            String line = this.reader.readLine();
+            if (line == null) {
+                throw new EOFException("The player disconnected");
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the connection of the player.
+     * @throws IOException if the channel can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,449 @@
+import java.util.Arrays;
+
+/**
+ * The SparseBoard class is a board for very large games, like freestyle gomoku on a 1000x1000 board,
+ where only a tiny part of the cells is ever marked.
+ * Instead of arrays of all the cells it keeps the marked cells in a CellTable, together with the
+ bounding box of the marks and the frontier: the empty cells next to a mark, which are the moves
+ worth playing (getCandidateCount and getCandidate). Memory and the cost of a move therefore grow
+ with the number of marks and not with the area of the board.
+ * The cells are numbered row * size + col as in Board, so the size of the board is limited to the
+ sizes whose number of cells fits in an int.
+ */
+public class SparseBoard extends Board {
+    /**
+     * The SparseBoard constants
+     */
+    private static final int MAX_SIZE = 46340;  // the largest size whose size * size is an int
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NOT_FOUND = -1;
+    private final int size;
+    private final long cells;
+    private final CellTable stones = new CellTable();
+    private final CellTable frontier = new CellTable();
+    private int[] frontierCells = new int[INITIAL_CAPACITY];
+    private int frontierCount;
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private int moveCount;
+    private int minRow;
+    private int maxRow;
+    private int minCol;
+    private int maxCol;
+    private int rowOrderCursor;
+    private int columnOrderCursor;
+    private int columnOrderStart = -1;
+
+    /**
+     * The constructor of SparseBoard, for an empty board.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak of the game.
+     */
+    public SparseBoard(int size, int winStreak) {
+        super(size, winStreak, 0);
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("A sparse board has 1 to " + MAX_SIZE + " rows");
+        }
+        this.size = size;
+        this.cells = (long) size * size;
+        clearBox();
+    }
+
+    /**
+     * This function puts a mark into the specified row and column if the cell is blank, and updates
+     the bounding box and the frontier.
+     * @param mark - X or O
+     * @param row - a number between 0 and size - 1
+     * @param col - a number between 0 and size - 1
+     * @return true in success, false otherwise
+     */
+    @Override
+    public boolean putMark(Mark mark, int row, int col) {
+        if (!isOnBoard(row, col) || mark == Mark.BLANK) {
+            return false;
+        }
+        int cell = row * this.size + col;
+        if (this.stones.containsKey(cell)) {
+            return false;
+        }
+        this.stones.put(cell, mark.ordinal());
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[this.moveCount++] = cell;
+        this.minRow = Math.min(this.minRow, row);
+        this.maxRow = Math.max(this.maxRow, row);
+        this.minCol = Math.min(this.minCol, col);
+        this.maxCol = Math.max(this.maxCol, col);
+        removeFromFrontier(cell);
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                int neighbour = i * this.size + j;
+                if (isOnBoard(i, j) && !this.stones.containsKey(neighbour) &&
+                        !this.frontier.containsKey(neighbour)) {
+                    addToFrontier(neighbour);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This function removes the mark from the specified row and column, and updates the bounding box
+     and the frontier around it.
+     * @param row - a number between 0 and size - 1
+     * @param col - a number between 0 and size - 1
+     * @return true if there was a mark to remove, false otherwise
+     */
+    @Override
+    public boolean undoMark(int row, int col) {
+        if (!isOnBoard(row, col)) {
+            return false;
+        }
+        int cell = row * this.size + col;
+        if (!this.stones.remove(cell)) {
+            return false;
+        }
+        int i = this.moveCount - 1;
+        while (this.moves[i] != cell) {
+            i--;
+        }
+        System.arraycopy(this.moves, i + 1, this.moves, i, this.moveCount - 1 - i);
+        this.moveCount--;
+        // the emptied cell and the empty cells around it may have lost their last marked neighbour
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                int neighbour = r * this.size + c;
+                if (!isOnBoard(r, c) || this.stones.containsKey(neighbour)) {
+                    continue;
+                }
+                boolean candidate = hasMarkedNeighbour(r, c);
+                if (candidate && !this.frontier.containsKey(neighbour)) {
+                    addToFrontier(neighbour);
+                } else if (!candidate) {
+                    removeFromFrontier(neighbour);
+                }
+            }
+        }
+        if (row == this.minRow || row == this.maxRow || col == this.minCol || col == this.maxCol) {
+            recomputeBox();
+        }
+        this.rowOrderCursor = Math.min(this.rowOrderCursor, cell);
+        if (this.columnOrderStart >= 0) {
+            int position = ((col - this.columnOrderStart + this.size) % this.size) * this.size + row;
+            this.columnOrderCursor = Math.min(this.columnOrderCursor, position);
+        }
+        return true;
+    }
+
+    /**
+     * This function copies the marks of this board into another SparseBoard of the same size,
+     reusing the tables of the target.
+     * @param target - the board to copy into
+     * @return true in success, false if the target is not a SparseBoard of the same size
+     */
+    @Override
+    public boolean copyInto(Board target) {
+        if (!(target instanceof SparseBoard) || target.getSize() != this.size) {
+            return false;
+        }
+        SparseBoard other = (SparseBoard) target;
+        other.stones.copyFrom(this.stones);
+        other.frontier.copyFrom(this.frontier);
+        if (other.frontierCells.length < this.frontierCount) {
+            other.frontierCells = new int[this.frontierCells.length];
+        }
+        System.arraycopy(this.frontierCells, 0, other.frontierCells, 0, this.frontierCount);
+        other.frontierCount = this.frontierCount;
+        if (other.moves.length < this.moveCount) {
+            other.moves = new int[this.moves.length];
+        }
+        System.arraycopy(this.moves, 0, other.moves, 0, this.moveCount);
+        other.moveCount = this.moveCount;
+        other.minRow = this.minRow;
+        other.maxRow = this.maxRow;
+        other.minCol = this.minCol;
+        other.maxCol = this.maxCol;
+        other.rowOrderCursor = this.rowOrderCursor;
+        other.columnOrderCursor = this.columnOrderCursor;
+        other.columnOrderStart = this.columnOrderStart;
+        return true;
+    }
+
+    /**
+     * This function returns the number of marks on the board.
+     * @return the number of moves that were played.
+     */
+    @Override
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * This function returns a mark of the board by the order it was put in.
+     * @param i - a number between 0 and getMoveCount() - 1, 0 for the first mark
+     * @return the cell of the mark as row * size + col.
+     */
+    @Override
+    public int getMove(int i) {
+        return this.moves[i];
+    }
+
+    /**
+     * This function returns the number of empty cells on the board.
+     * @return the number of empty cells.
+     */
+    @Override
+    public int getFreeCount() {
+        return (int) (this.cells - this.moveCount);
+    }
+
+    /**
+     * This function returns the first empty cell from the i-th cell of the board on, so that
+     getFreeCell(random number below getFreeCount()) is a random empty cell, almost uniformly while
+     the board is mostly empty.
+     * @param i - a number between 0 and getFreeCount() - 1
+     * @return the empty cell as row * size + col, or -1 if the board is full.
+     */
+    @Override
+    public int getFreeCell(int i) {
+        if (getFreeCount() == 0) {
+            return -1;
+        }
+        int cell = i;
+        while (this.stones.containsKey(cell)) {
+            cell = (int) ((cell + 1) % this.cells);
+        }
+        return cell;
+    }
+
+    /**
+     * This function returns the number of cells worth playing: the empty cells next to a mark, or the
+     center of the board if it is empty.
+     * @return the number of candidate cells.
+     */
+    @Override
+    public int getCandidateCount() {
+        return this.moveCount == 0 ? 1 : this.frontierCount;
+    }
+
+    /**
+     * This function returns a cell worth playing by its place in the list of candidates.
+     * @param i - a number between 0 and getCandidateCount() - 1
+     * @return the candidate cell as row * size + col.
+     */
+    @Override
+    public int getCandidate(int i) {
+        if (this.moveCount == 0) {
+            return (this.size / 2) * this.size + this.size / 2;
+        }
+        return this.frontierCells[i];
+    }
+
+    /**
+     * This function returns the first empty cell going over the rows in order, each from left to right.
+     * @return the cell as row * size + col, or -1 if the board is full.
+     */
+    @Override
+    public int firstFreeCellInRowOrder() {
+        while (this.rowOrderCursor < this.cells && this.stones.containsKey(this.rowOrderCursor)) {
+            this.rowOrderCursor++;
+        }
+        return this.rowOrderCursor < this.cells ? this.rowOrderCursor : -1;
+    }
+
+    /**
+     * This function returns the first empty cell going over the columns in order, each from top to
+     bottom, starting from the given column and going back to column 0 after the last one.
+     * @param firstCol - the column to start from
+     * @return the cell as row * size + col, or -1 if the board is full.
+     */
+    @Override
+    public int firstFreeCellInColumnOrder(int firstCol) {
+        if (firstCol != this.columnOrderStart) {
+            this.columnOrderStart = firstCol;
+            this.columnOrderCursor = 0;
+        }
+        while (this.columnOrderCursor < this.cells) {
+            int row = this.columnOrderCursor % this.size;
+            int col = (firstCol + this.columnOrderCursor / this.size) % this.size;
+            int cell = row * this.size + col;
+            if (!this.stones.containsKey(cell)) {
+                return cell;
+            }
+            this.columnOrderCursor++;
+        }
+        return -1;
+    }
+
+    /**
+     * This function returns the row of the last mark that was put on the board.
+     * @return the row of the last placed mark, or -1 if the board is empty.
+     */
+    @Override
+    public int getLastRow() {
+        return this.moveCount == 0 ? -1 : this.moves[this.moveCount - 1] / this.size;
+    }
+
+    /**
+     * This function returns the column of the last mark that was put on the board.
+     * @return the column of the last placed mark, or -1 if the board is empty.
+     */
+    @Override
+    public int getLastCol() {
+        return this.moveCount == 0 ? -1 : this.moves[this.moveCount - 1] % this.size;
+    }
+
+    /**
+     * This function returns the mark of the specified cell.
+     * @param row - a row in the board
+     * @param col - a column in the board
+     * @return X, O or Blank of the corresponding cell.
+     */
+    @Override
+    public Mark getMark(int row, int col) {
+        if (!isOnBoard(row, col)) {
+            return Mark.BLANK;
+        }
+        int ordinal = this.stones.get(row * this.size + col, NOT_FOUND);
+        if (ordinal == Mark.X.ordinal()) {
+            return Mark.X;
+        }
+        return ordinal == Mark.O.ordinal() ? Mark.O : Mark.BLANK;
+    }
+
+    /**
+     * This function checks whether the given mark has winStreak consecutive cells in some row,
+     column or diagonal, by checking the lines through each of its marks.
+     * @param mark - X or O
+     * @param winStreak - the length of the streak to look for
+     * @return true if the mark has such a streak, false otherwise (always false for Blank).
+     */
+    @Override
+    public boolean hasStreak(Mark mark, int winStreak) {
+        if (mark == Mark.BLANK || winStreak > this.size) {
+            return false;
+        }
+        for (int i = 0; i < this.moveCount; i++) {
+            int row = this.moves[i] / this.size;
+            int col = this.moves[i] % this.size;
+            if (getMark(row, col) == mark && Game.checkLastMove(this, row, col, winStreak) == mark) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first row that has a mark.
+     * @return the top row of the bounding box of the marks, or size if the board is empty.
+     */
+    public int getMinRow() {
+        return this.minRow;
+    }
+
+    /**
+     * Returns the last row that has a mark.
+     * @return the bottom row of the bounding box of the marks, or -1 if the board is empty.
+     */
+    public int getMaxRow() {
+        return this.maxRow;
+    }
+
+    /**
+     * Returns the first column that has a mark.
+     * @return the left column of the bounding box of the marks, or size if the board is empty.
+     */
+    public int getMinCol() {
+        return this.minCol;
+    }
+
+    /**
+     * Returns the last column that has a mark.
+     * @return the right column of the bounding box of the marks, or -1 if the board is empty.
+     */
+    public int getMaxCol() {
+        return this.maxCol;
+    }
+
+    /**
+     * Checks if a cell is on the board.
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return true if the cell is on the board
+     */
+    private boolean isOnBoard(int row, int col) {
+        return 0 <= row && row < this.size && 0 <= col && col < this.size;
+    }
+
+    /**
+     * Checks if one of the eight cells around the given cell has a mark.
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return true if a neighbour cell is marked
+     */
+    private boolean hasMarkedNeighbour(int row, int col) {
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if ((i != row || j != col) && isOnBoard(i, j) && this.stones.containsKey(i * this.size + j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a cell to the end of the frontier list.
+     * @param cell - the empty cell
+     */
+    private void addToFrontier(int cell) {
+        if (this.frontierCount == this.frontierCells.length) {
+            this.frontierCells = Arrays.copyOf(this.frontierCells, this.frontierCells.length * 2);
+        }
+        this.frontier.put(cell, this.frontierCount);
+        this.frontierCells[this.frontierCount++] = cell;
+    }
+
+    /**
+     * Removes a cell from the frontier list, if it is there, by moving the last cell of the list into
+     its place.
+     * @param cell - the cell
+     */
+    private void removeFromFrontier(int cell) {
+        int position = this.frontier.get(cell, NOT_FOUND);
+        if (position == NOT_FOUND) {
+            return;
+        }
+        this.frontier.remove(cell);
+        int last = this.frontierCells[--this.frontierCount];
+        if (last != cell) {
+            this.frontierCells[position] = last;
+            this.frontier.put(last, position);
+        }
+    }
+
+    /**
+     * Empties the bounding box.
+     */
+    private void clearBox() {
+        this.minRow = this.size;
+        this.minCol = this.size;
+        this.maxRow = -1;
+        this.maxCol = -1;
+    }
+
+    /**
+     * Finds the bounding box of the marks again, after a mark on its edge was removed.
+     */
+    private void recomputeBox() {
+        clearBox();
+        for (int i = 0; i < this.moveCount; i++) {
+            int row = this.moves[i] / this.size;
+            int col = this.moves[i] % this.size;
+            this.minRow = Math.min(this.minRow, row);
+            this.maxRow = Math.max(this.maxRow, row);
+            this.minCol = Math.min(this.minCol, col);
+            this.maxCol = Math.max(this.maxCol, col);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The Tablebase class is a memory-mapped table of the values of all the positions of a small board.
+ * A position is keyed by its cells as a number in base 3 (0 for Blank, 1 for X and 2 for O, the
+ cell row * size + col being the digit of 3^(row * size + col)), and only the smallest key of the
+ eight rotations and reflections of a position is stored. The value of a position is for the player
+ to move: a win, a draw or a loss, and the number of moves until the end of the game with perfect play.
+ * The file holds a header, the sorted canonical keys and then their values, a byte each.
+ */
+class Tablebase {
+    /**
+     * The Tablebase constants
+     */
+    static final int MAGIC = 0x54544254;  // "TTBT"
+    static final int MAX_CELLS = 16;
+    static final int HEADER_BYTES = 3 * Integer.BYTES;
+    static final int WIN = 1;
+    static final int DRAW = 2;
+    static final int LOSS = 3;
+    static final int RESULT_SHIFT = 6;
+    static final int DISTANCE_MASK = (1 << RESULT_SHIFT) - 1;
+    static final int NOT_FOUND = 0;
+    private final int size;
+    private final int winStreak;
+    private final int count;
+    private final IntBuffer keys;
+    private final MappedByteBuffer values;
+    private final int[][] symmetries;
+    private final int[] powers;
+
+    /**
+     * The constructor of Tablebase. It maps a file written by TablebaseGenerator.
+     * @param path - the path of the file.
+     * @throws IOException if the file can not be read or is not a tablebase file.
+     */
+    Tablebase(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a tablebase file: " + path);
+            }
+            int shape = header.getInt(Integer.BYTES);
+            this.size = shape >>> Short.SIZE;
+            this.winStreak = shape & 0xFFFF;
+            this.count = header.getInt(2 * Integer.BYTES);
+            long keysBytes = (long) this.count * Integer.BYTES;
+            this.keys = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, keysBytes).asIntBuffer();
+            this.values = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + keysBytes, this.count);
+        }
+        this.symmetries = PositionKey.symmetries(this.size);
+        this.powers = powers(this.size * this.size);
+    }
+
+    /**
+     * Returns the name of the tablebase file of a board.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @return the file name.
+     */
+    static String fileName(int size, int winStreak) {
+        return "tablebase_" + size + "_" + winStreak + ".bin";
+    }
+
+    /**
+     * Returns the size of the board of the table.
+     * @return the size of the board.
+     */
+    int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the win streak of the table.
+     * @return the win streak.
+     */
+    int getWinStreak() {
+        return this.winStreak;
+    }
+
+    /**
+     * Returns the base 3 key of the position on a board.
+     * @param board - the board.
+     * @return the key.
+     */
+    int keyOf(Board board) {
+        int key = 0;
+        for (int cell = 0; cell < this.size * this.size; cell++) {
+            Mark mark = board.getMark(cell / this.size, cell % this.size);
+            key += mark.ordinal() * this.powers[cell];
+        }
+        return key;
+    }
+
+    /**
+     * Returns the power of 3 that is the digit of a cell in a key.
+     * @param cell - the cell, row * size + col
+     * @return 3 to the power of the cell.
+     */
+    int power(int cell) {
+        return this.powers[cell];
+    }
+
+    /**
+     * Returns the value of a position.
+     * @param key - the base 3 key of the position, in any of its symmetries.
+     * @return the value byte, or NOT_FOUND if the position is not in the table.
+     */
+    int lookup(int key) {
+        int canonical = canonicalKey(key, this.symmetries, this.powers);
+        int low = 0, high = this.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleKey = this.keys.get(middle);
+            if (middleKey < canonical) {
+                low = middle + 1;
+            } else if (middleKey > canonical) {
+                high = middle - 1;
+            } else {
+                return this.values.get(middle) & 0xFF;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the powers of 3.
+     * @param cells - the number of cells.
+     * @return the powers 3^0 to 3^(cells - 1).
+     */
+    static int[] powers(int cells) {
+        int[] powers = new int[cells];
+        int power = 1;
+        for (int cell = 0; cell < cells; cell++) {
+            powers[cell] = power;
+            power *= 3;
+        }
+        return powers;
+    }
+
+    /**
+     * Returns the smallest key among the eight symmetries of a position.
+     * @param key - the base 3 key of the position.
+     * @param symmetries - the symmetries of the board.
+     * @param powers - the powers of 3 of the cells.
+     * @return the canonical key.
+     */
+    static int canonicalKey(int key, int[][] symmetries, int[] powers) {
+        int canonical = key;
+        for (int symmetry = 1; symmetry < PositionKey.SYMMETRIES; symmetry++) {
+            int[] moved = symmetries[symmetry];
+            int transformed = 0;
+            int rest = key;
+            for (int cell = 0; cell < moved.length && rest != 0; cell++) {
+                transformed += (rest % 3) * powers[moved[cell]];
+                rest /= 3;
+            }
+            canonical = Math.min(canonical, transformed);
+        }
+        return canonical;
+    }
+}
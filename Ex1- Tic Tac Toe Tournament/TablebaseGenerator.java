@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The TablebaseGenerator class solves every position of a small board and writes a Tablebase file.
+ * A position is the number of its cells in base 3, as in Tablebase, and every move adds to the
+ number of the position, so the positions are solved by retrograde analysis in two passes over all
+ the numbers: a forward pass from the empty board marks the positions that can be reached in a game,
+ and a backward pass from the largest number to the smallest gives every reached position its value
+ from the values of the positions after its moves, which were all solved before it.
+ * Only the positions whose key is the smallest of their symmetries are written, with their values.
+ */
+public class TablebaseGenerator {
+    /**
+     * The TablebaseGenerator constants
+     */
+    private static final int SIZE_IND = 0;
+    private static final int WIN_STREAK_IND = 1;
+    private static final int PATH_IND = 2;
+    private static final int DEFAULT_WIN_STREAK = 3;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private static final int X_DIGIT = 1;
+    private static final int O_DIGIT = 2;
+    private final int size;
+    private final int winStreak;
+    private final int cells;
+    private final int positions;
+    private final int[] powers;
+    private final int[] winMasks;
+    private final long[] reachable;
+    private final byte[] values;
+    private final int[] digits;
+    private int xMask;
+    private int oMask;
+
+    /**
+     * The constructor of TablebaseGenerator.
+     * @param size - the size of the board, at most 4.
+     * @param winStreak - the win streak.
+     */
+    public TablebaseGenerator(int size, int winStreak) {
+        if (size * size > Tablebase.MAX_CELLS || winStreak < 1 || winStreak > size) {
+            throw new IllegalArgumentException("Tablebases are for boards of up to " +
+                    Tablebase.MAX_CELLS + " cells");
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.cells = size * size;
+        this.powers = Tablebase.powers(this.cells);
+        this.positions = this.powers[this.cells - 1] * 3;
+        this.winMasks = winMasks();
+        this.reachable = new long[(this.positions + Long.SIZE - 1) / Long.SIZE];
+        this.values = new byte[this.positions];
+        this.digits = new int[this.cells];
+    }
+
+    /**
+     * Returns the cells of every row, column and diagonal segment of win streak cells, as bit masks.
+     * @return the masks of the segments.
+     */
+    private int[] winMasks() {
+        int[] masks = new int[ROW_STEPS.length * this.cells];
+        int count = 0;
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            for (int row = 0; row < this.size; row++) {
+                for (int col = 0; col < this.size; col++) {
+                    int endRow = row + (this.winStreak - 1) * ROW_STEPS[direction];
+                    int endCol = col + (this.winStreak - 1) * COL_STEPS[direction];
+                    if (endRow >= this.size || endCol < 0 || endCol >= this.size) {
+                        continue;
+                    }
+                    int mask = 0;
+                    for (int i = 0; i < this.winStreak; i++) {
+                        mask |= 1 << ((row + i * ROW_STEPS[direction]) * this.size +
+                                col + i * COL_STEPS[direction]);
+                    }
+                    masks[count++] = mask;
+                }
+            }
+        }
+        return Arrays.copyOf(masks, count);
+    }
+
+    /**
+     * Checks if the given cells hold a whole segment.
+     * @param mask - the cells of a player.
+     * @return true if the player has a win streak.
+     */
+    private boolean hasStreak(int mask) {
+        for (int winMask : this.winMasks) {
+            if ((mask & winMask) == winMask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the digit of a cell in the decoded position, keeping the masks of X and O in step.
+     * @param cell - the cell.
+     * @param digit - 0 for Blank, 1 for X and 2 for O.
+     */
+    private void setDigit(int cell, int digit) {
+        int bit = 1 << cell;
+        this.xMask = digit == X_DIGIT ? this.xMask | bit : this.xMask & ~bit;
+        this.oMask = digit == O_DIGIT ? this.oMask | bit : this.oMask & ~bit;
+        this.digits[cell] = digit;
+    }
+
+    /**
+     * Moves the decoded position to the next number, like an odometer in base 3.
+     */
+    private void increment() {
+        for (int cell = 0; cell < this.cells; cell++) {
+            if (this.digits[cell] < O_DIGIT) {
+                setDigit(cell, this.digits[cell] + 1);
+                return;
+            }
+            setDigit(cell, 0);
+        }
+    }
+
+    /**
+     * Moves the decoded position to the previous number, like an odometer in base 3.
+     */
+    private void decrement() {
+        for (int cell = 0; cell < this.cells; cell++) {
+            if (this.digits[cell] > 0) {
+                setDigit(cell, this.digits[cell] - 1);
+                return;
+            }
+            setDigit(cell, O_DIGIT);
+        }
+    }
+
+    /**
+     * Checks if the game ended in the decoded position, either by a win of the player who moved
+     last or by a full board.
+     * @return true if there are no more moves.
+     */
+    private boolean isTerminal() {
+        int lastMover = Integer.bitCount(this.xMask) > Integer.bitCount(this.oMask) ? this.xMask : this.oMask;
+        return hasStreak(lastMover) || (this.xMask | this.oMask) == (1 << this.cells) - 1;
+    }
+
+    /**
+     * Returns the digit of the player to move in the decoded position. X always moves first.
+     * @return 1 for X or 2 for O.
+     */
+    private int digitToMove() {
+        return Integer.bitCount(this.xMask) == Integer.bitCount(this.oMask) ? X_DIGIT : O_DIGIT;
+    }
+
+    /**
+     * Marks every position that can be reached in a game, going over the numbers upwards.
+     */
+    private void markReachable() {
+        this.reachable[0] |= 1L;
+        Arrays.fill(this.digits, 0);
+        this.xMask = 0;
+        this.oMask = 0;
+        for (int position = 0; position < this.positions; position++, increment()) {
+            if ((this.reachable[position >>> 6] & (1L << position)) == 0 || isTerminal()) {
+                continue;
+            }
+            int step = digitToMove();
+            for (int cell = 0; cell < this.cells; cell++) {
+                if (this.digits[cell] == 0) {
+                    int child = position + step * this.powers[cell];
+                    this.reachable[child >>> 6] |= 1L << child;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives every reachable position its value, going over the numbers downwards so that all the
+     positions after a move are solved before the position itself.
+     */
+    private void solve() {
+        Arrays.fill(this.digits, O_DIGIT);
+        this.xMask = 0;
+        this.oMask = (1 << this.cells) - 1;
+        for (int position = this.positions - 1; position >= 0; position--, decrement()) {
+            if ((this.reachable[position >>> 6] & (1L << position)) == 0) {
+                continue;
+            }
+            if (isTerminal()) {
+                // the player to move lost if the last move won, otherwise the board is full
+                boolean lost = hasStreak(this.xMask) || hasStreak(this.oMask);
+                this.values[position] = value(lost ? Tablebase.LOSS : Tablebase.DRAW, 0);
+                continue;
+            }
+            this.values[position] = solveMoves(position, digitToMove());
+        }
+    }
+
+    /**
+     * Returns the value of a position from the values of the positions after its moves, which are
+     the values for the other player: the best move wins the quickest, or else draws, or else loses
+     the slowest.
+     * @param position - the number of the position.
+     * @param step - the digit of the player to move.
+     * @return the value of the position.
+     */
+    private byte solveMoves(int position, int step) {
+        int winDistance = Integer.MAX_VALUE, drawDistance = Integer.MAX_VALUE, lossDistance = -1;
+        for (int cell = 0; cell < this.cells; cell++) {
+            if (this.digits[cell] != 0) {
+                continue;
+            }
+            int child = this.values[position + step * this.powers[cell]];
+            int distance = (child & Tablebase.DISTANCE_MASK) + 1;
+            switch (child >>> Tablebase.RESULT_SHIFT & 0x3) {
+                case Tablebase.LOSS:
+                    winDistance = Math.min(winDistance, distance);
+                    break;
+                case Tablebase.DRAW:
+                    drawDistance = Math.min(drawDistance, distance);
+                    break;
+                default:
+                    lossDistance = Math.max(lossDistance, distance);
+                    break;
+            }
+        }
+        if (winDistance != Integer.MAX_VALUE) {
+            return value(Tablebase.WIN, winDistance);
+        }
+        if (drawDistance != Integer.MAX_VALUE) {
+            return value(Tablebase.DRAW, drawDistance);
+        }
+        return value(Tablebase.LOSS, lossDistance);
+    }
+
+    /**
+     * Packs a result and a distance into a value byte.
+     * @param result - WIN, DRAW or LOSS.
+     * @param distance - the number of moves until the end of the game.
+     * @return the value byte.
+     */
+    private static byte value(int result, int distance) {
+        return (byte) (result << Tablebase.RESULT_SHIFT | distance);
+    }
+
+    /**
+     * Solves the board and writes the canonical positions and their values to a file.
+     * @param path - the path of the file.
+     * @return the number of positions written.
+     * @throws IOException if the file can not be written.
+     */
+    public int generate(Path path) throws IOException {
+        markReachable();
+        solve();
+        int[][] symmetries = PositionKey.symmetries(this.size);
+        int[] keys = new int[1 << 10];
+        int count = 0;
+        for (int position = 0; position < this.positions; position++) {
+            if ((this.reachable[position >>> 6] & (1L << position)) != 0 &&
+                    Tablebase.canonicalKey(position, symmetries, this.powers) == position) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+                keys[count++] = position;
+            }
+        }
+        long keysBytes = (long) count * Integer.BYTES;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Tablebase.HEADER_BYTES + keysBytes + count);
+            out.putInt(Tablebase.MAGIC);
+            out.putInt(this.size << Short.SIZE | this.winStreak);
+            out.putInt(count);
+            for (int i = 0; i < count; i++) {
+                out.putInt(keys[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.put(this.values[keys[i]]);
+            }
+            out.force();
+        }
+        return count;
+    }
+
+    /**
+     * The main method of the generator.
+     * @param args - the size of the board, optionally the win streak and the path of the file, which
+     defaults to the file TablebasePlayer looks for.
+     * @throws IOException if the file can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int size = Integer.parseInt(args[SIZE_IND]);
+        int winStreak = args.length > WIN_STREAK_IND ? Integer.parseInt(args[WIN_STREAK_IND]) :
+                Math.min(size, DEFAULT_WIN_STREAK);
+        Path path = Paths.get(args.length > PATH_IND ? args[PATH_IND] : Tablebase.fileName(size, winStreak));
+        long start = System.nanoTime();
+        int count = new TablebaseGenerator(size, winStreak).generate(path);
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", count, path,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
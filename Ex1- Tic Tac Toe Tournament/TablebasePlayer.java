@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * class TablebasePlayer represents a player that plays perfectly on small boards by looking up the
+ value of every move in a Tablebase, without any search.
+ * The tables are written by TablebaseGenerator to the working directory, and every table is mapped
+ once and shared by all the TablebasePlayers. On a board that has no table the player fills the
+ first empty cell in row order, like CleverPlayer.
+ */
+public class TablebasePlayer implements Player {
+    /**
+     * The TablebasePlayer constants
+     */
+    private static final Map<String, Optional<Tablebase>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * A default constructor for the TablebasePlayer class.
+     */
+    public TablebasePlayer() {
+
+    }
+
+    /**
+     * Returns the table of a board, mapping its file the first time it is needed.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @return the table, or null if there is no table for the board.
+     */
+    private static Tablebase getTable(int size, int winStreak) {
+        if (size * size > Tablebase.MAX_CELLS) {
+            return null;
+        }
+        return tables.computeIfAbsent(Tablebase.fileName(size, winStreak), name -> {
+            Path path = Paths.get(name);
+            if (!Files.exists(path)) {
+                System.err.println("No tablebase " + name + ", run TablebaseGenerator " + size + " " +
+                        winStreak);
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Tablebase(path));
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * This function gets a board and a mark and plays a TablebasePlayer turn.
+     * It looks up the position after every empty cell, where the other player is to move, and plays
+     the move that wins the quickest, or else draws, or else loses the slowest.
+     * @param board - the board
+     * @param mark - the mark to be put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        int size = board.getSize();
+        Tablebase table = getTable(size, board.getWinStreak());
+        int bestCell = board.firstFreeCellInRowOrder();
+        if (table != null) {
+            int key = table.keyOf(board);
+            int bestScore = Integer.MIN_VALUE;
+            for (int i = 0; i < board.getFreeCount(); i++) {
+                int cell = board.getFreeCell(i);
+                int score = score(table.lookup(key + mark.ordinal() * table.power(cell)));
+                if (score > bestScore || (score == bestScore && cell < bestCell)) {
+                    bestScore = score;
+                    bestCell = cell;
+                }
+            }
+        }
+        if (bestCell >= 0) {
+            board.putMark(mark, bestCell / size, bestCell % size);
+        }
+    }
+
+    /**
+     * Scores a move by the value of the position after it, which is the value for the other player.
+     * @param value - the value byte of the position after the move.
+     * @return a higher score for a better move.
+     */
+    private static int score(int value) {
+        int distance = value & Tablebase.DISTANCE_MASK;
+        switch (value >>> Tablebase.RESULT_SHIFT & 0x3) {
+            case Tablebase.LOSS:
+                return 2 * Tablebase.DISTANCE_MASK - distance;
+            case Tablebase.DRAW:
+                return 0;
+            case Tablebase.WIN:
+                return distance - 2 * Tablebase.DISTANCE_MASK;
+            default:
+                return Integer.MIN_VALUE + 1;
+        }
+    }
+}
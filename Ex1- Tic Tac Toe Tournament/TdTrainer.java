@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The TdTrainer class trains the ValueTable of LearnedPlayer by self-play: every worker thread plays
+ games of two training LearnedPlayers against each other with the Game loop, and both learn from the
+ result. All the workers share one table, which they update without locks.
+ * Every CHECKPOINT_GAMES games the table is saved to the checkpoint file that LearnedPlayer loads,
+ and the games per second are printed. The last save is made after all the workers are done, so it
+ has the updates of every game. Training goes on from the checkpoint if there is one.
+ */
+public class TdTrainer {
+    /**
+     * The TdTrainer constants
+     */
+    private static final int SIZE_IND = 0;
+    private static final int WIN_STREAK_IND = 1;
+    private static final int GAMES_IND = 2;
+    private static final int THREADS_IND = 3;
+    private static final int TABLE_BITS = 22;
+    private static final long CHECKPOINT_GAMES = 100_000;
+    private static final double EXPLORATION_RATE = 0.1;
+    private static final float LEARNING_RATE = 0.1f;
+    private static final float TIE_VALUE = 0.5f;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private final int size;
+    private final int winStreak;
+    private final long games;
+    private final ValueTable table;
+    private final Path path;
+    private final AtomicLong played = new AtomicLong();
+    private long start;
+
+    /**
+     * The constructor of TdTrainer.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param games - the number of games to play.
+     * @param table - the table to train.
+     * @param path - the checkpoint file.
+     */
+    public TdTrainer(int size, int winStreak, long games, ValueTable table, Path path) {
+        this.size = size;
+        this.winStreak = winStreak;
+        this.games = games;
+        this.table = table;
+        this.path = path;
+    }
+
+    /**
+     * Plays games until all of them are played, learning from every game.
+     */
+    private void work() {
+        LearnedPlayer playerX = new LearnedPlayer(this.table, EXPLORATION_RATE, LEARNING_RATE);
+        LearnedPlayer playerO = new LearnedPlayer(this.table, EXPLORATION_RATE, LEARNING_RATE);
+        Renderer renderer = new VoidRenderer();
+        long game;
+        while ((game = this.played.incrementAndGet()) <= this.games) {
+            Mark winner = new Game(playerX, playerO, this.size, this.winStreak, renderer).run();
+            playerX.learn(winner == Mark.X ? LearnedPlayer.WIN_VALUE :
+                    winner == Mark.O ? LearnedPlayer.LOSS_VALUE : TIE_VALUE);
+            playerO.learn(winner == Mark.O ? LearnedPlayer.WIN_VALUE :
+                    winner == Mark.X ? LearnedPlayer.LOSS_VALUE : TIE_VALUE);
+            if (game % CHECKPOINT_GAMES == 0 && game < this.games) {
+                checkpoint(game);
+            }
+        }
+    }
+
+    /**
+     * Saves the table and prints the progress of the training.
+     * @param game - the number of games played.
+     */
+    private synchronized void checkpoint(long game) {
+        try {
+            this.table.save(this.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        double seconds = (System.nanoTime() - this.start) / NANOS_PER_SECOND;
+        System.out.printf("Games: %d (%.0f games/sec), positions: %d, dropped updates: %d%n", game,
+                game / seconds, this.table.count(), this.table.getDropped());
+    }
+
+    /**
+     * Trains the table on the given number of threads and saves it at the end.
+     * @param threads - the number of worker threads.
+     * @throws InterruptedException if the waiting for the workers is interrupted.
+     */
+    public void train(int threads) throws InterruptedException {
+        this.start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        checkpoint(this.games);
+    }
+
+    /**
+     * The main method of the trainer.
+     * @param args - the size of the board, the win streak, the number of games, and optionally the
+     number of threads, which defaults to the number of processors.
+     * @throws IOException if the checkpoint can not be read.
+     * @throws InterruptedException if the training is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = Integer.parseInt(args[SIZE_IND]);
+        int winStreak = Integer.parseInt(args[WIN_STREAK_IND]);
+        long games = Long.parseLong(args[GAMES_IND]);
+        int threads = args.length > THREADS_IND ? Integer.parseInt(args[THREADS_IND]) :
+                Runtime.getRuntime().availableProcessors();
+        Path path = Paths.get(ValueTable.fileName(size, winStreak));
+        ValueTable table = Files.exists(path) ? ValueTable.load(path, TABLE_BITS) :
+                new ValueTable(size, winStreak, TABLE_BITS);
+        new TdTrainer(size, winStreak, games, table, path).train(threads);
+    }
+}
@@ -0,0 +1,348 @@
+/**
+ * class ThreatSpacePlayer represents a player for large boards with long win streaks, that looks for
+ a victory by continuous fours (VCF): a series of moves that each leave the other player a single
+ cell to block, ending in a move that leaves two.
+ * The player keeps the OpenSegments of the game up to date with the move history of the board, and
+ uses its counters as line patterns: a cell completes a "four" when an open segment through it has
+ win streak - 2 of the marks of the player, and wins when it has win streak - 1. A four can only be
+ made on a line within win streak - 1 cells of a mark, so the player also keeps the list of the
+ cells near the marks, and the search only tries the cells of that list that make a four. It stops
+ after MAX_NODES positions.
+ * A turn wins if it can, blocks the win of the other player, plays a VCF of its own, breaks a VCF of
+ the other player, or else plays the cell with the most open segments for both players. Boards
+ larger than MAX_SIZE are too large for the counters, and there the player fills the first empty
+ cell in row order, like CleverPlayer.
+ */
+public class ThreatSpacePlayer implements Player {
+    /**
+     * The ThreatSpacePlayer constants
+     */
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private static final int MAX_SIZE = 1000;
+    private static final int MAX_DEPTH = 12;
+    private static final int MAX_NODES = 2000;
+    private static final int PATTERN_BITS = 3;   // a segment with one more mark is worth 8 times more
+    private static final int ATTACK_WEIGHT = 2;
+    private static final int NO_CELL = -1;
+    private static final int INITIAL_NEAR_CELLS = 64;
+    private OpenSegments segments;
+    private Board board;
+    private int size;
+    private int winStreak;
+    private int seenMoves;
+    private int[] nearCount;   // the number of marks whose lines reach each cell
+    private int[] nearCells = new int[INITIAL_NEAR_CELLS];   // the cells whose nearCount is not 0
+    private int nearCellCount;
+    private int[] histogram;
+    private int nodes;
+    private int rootCell;
+
+    /**
+     * A default constructor for the ThreatSpacePlayer class.
+     */
+    public ThreatSpacePlayer() {
+
+    }
+
+    /**
+     * Brings the counters and the cells near the marks up to date with the board: counts the whole
+     board again on a new board, or else counts the moves played since the last turn.
+     * @param board - the board
+     */
+    private void follow(Board board) {
+        int size = board.getSize();
+        int winStreak = board.getWinStreak();
+        boolean newBoard = board != this.board || board.getMoveCount() < this.seenMoves;
+        if (this.segments == null || size != this.size || winStreak != this.winStreak) {
+            this.segments = new OpenSegments(size, winStreak);
+            this.histogram = new int[winStreak + 1];
+            this.nearCount = new int[size * size];
+            this.nearCellCount = 0;
+            this.size = size;
+            this.winStreak = winStreak;
+            newBoard = true;
+        } else if (newBoard) {
+            this.segments.clear();
+            for (int i = 0; i < this.nearCellCount; i++) {
+                this.nearCount[this.nearCells[i]] = 0;
+            }
+            this.nearCellCount = 0;
+        }
+        this.board = board;
+        for (int i = newBoard ? 0 : this.seenMoves; i < board.getMoveCount(); i++) {
+            int cell = board.getMove(i);
+            this.segments.place(board.getMark(cell / size, cell % size), cell / size, cell % size);
+            addNear(cell / size, cell % size);
+        }
+        this.seenMoves = board.getMoveCount();
+    }
+
+    /**
+     * This function gets a board and a mark and plays a ThreatSpacePlayer turn.
+     * @param board - the board
+     * @param mark - the mark to be put on the board
+     */
+    public void playTurn(Board board, Mark mark) {
+        int size = board.getSize();
+        if (size > MAX_SIZE) {
+            int cell = board.firstFreeCellInRowOrder();
+            if (cell >= 0) {
+                board.putMark(mark, cell / size, cell % size);
+            }
+            return;
+        }
+        follow(board);
+        Mark other = mark == Mark.X ? Mark.O : Mark.X;
+        int cell = chooseCell(board, mark, other);
+        if (cell == NO_CELL) {
+            return;
+        }
+        board.putMark(mark, cell / size, cell % size);
+        this.segments.place(mark, cell / size, cell % size);
+        addNear(cell / size, cell % size);
+        this.seenMoves = board.getMoveCount();
+    }
+
+    /**
+     * Chooses the cell of a turn.
+     * @param board - the board
+     * @param mark - the mark of the player
+     * @param other - the mark of the other player
+     * @return the cell, or NO_CELL if the board is full.
+     */
+    private int chooseCell(Board board, Mark mark, Mark other) {
+        int center = (this.size / 2) * this.size + this.size / 2;
+        if (board.getMoveCount() == 0 && board.getMark(this.size / 2, this.size / 2) == Mark.BLANK) {
+            return center;
+        }
+        int block = NO_CELL;
+        int bestCell = NO_CELL;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < board.getCandidateCount(); i++) {
+            int cell = board.getCandidate(i);
+            int row = cell / this.size;
+            int col = cell % this.size;
+            long score = ATTACK_WEIGHT * patternScore(mark, row, col);
+            if (this.histogram[this.winStreak - 1] > 0) {
+                return cell;   // wins right away
+            }
+            score += patternScore(other, row, col);
+            if (this.histogram[this.winStreak - 1] > 0) {
+                block = cell;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestCell = cell;
+            }
+        }
+        if (block != NO_CELL) {
+            return block;
+        }
+        if (findVcf(board, mark, other)) {
+            return this.rootCell;
+        }
+        if (findVcf(board, other, mark)) {
+            return this.rootCell;   // takes the first cell of the threat of the other player
+        }
+        return bestCell;
+    }
+
+    /**
+     * Scores a cell by the open segments of a player through it, and leaves their counts in the
+     histogram.
+     * @param mark - the mark of the player
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return the score, higher for segments with more marks.
+     */
+    private long patternScore(Mark mark, int row, int col) {
+        this.segments.countPatterns(mark, row, col, this.histogram);
+        long score = 0;
+        for (int marks = 0; marks < this.winStreak; marks++) {
+            score += (long) this.histogram[marks] << (PATTERN_BITS * marks);
+        }
+        return score;
+    }
+
+    /**
+     * Searches for a victory by continuous fours of a player, who is to move and can not win at once.
+     * @param board - the board
+     * @param attacker - the mark of the player who makes the fours
+     * @param defender - the mark of the player who blocks them
+     * @return true if there is one, and then rootCell is its first move.
+     */
+    private boolean findVcf(Board board, Mark attacker, Mark defender) {
+        if (this.winStreak < 2) {
+            return false;
+        }
+        this.nodes = 0;
+        return vcf(board, attacker, defender, MAX_DEPTH);
+    }
+
+    /**
+     * One step of the search: tries every move of the attacker near the marks that makes a four, and
+     answers it with the only block of the defender. The moves it tries add cells to the end of the
+     list of cells near the marks, and taking them back removes the same cells, so the cells of the
+     list up to its length at the start of the step stay in their places.
+     * @param board - the board
+     * @param attacker - the mark of the player who makes the fours
+     * @param defender - the mark of the player who blocks them
+     * @param depth - the number of fours left to try
+     * @return true if the attacker wins.
+     */
+    private boolean vcf(Board board, Mark attacker, Mark defender, int depth) {
+        if (depth == 0 || this.nodes++ >= MAX_NODES) {
+            return false;
+        }
+        int nearCells = this.nearCellCount;
+        for (int i = 0; i < nearCells; i++) {
+            int cell = this.nearCells[i];
+            int row = cell / this.size;
+            int col = cell % this.size;
+            if (board.getMark(row, col) != Mark.BLANK) {
+                continue;
+            }
+            this.segments.countPatterns(attacker, row, col, this.histogram);
+            if (this.histogram[this.winStreak - 2] == 0) {
+                continue;   // does not make a four
+            }
+            play(board, attacker, row, col);
+            int block = winningCell(board, attacker, row, col, NO_CELL);
+            boolean wins = false;
+            if (block != NO_CELL) {
+                // two cells to block win, and so does a block that wins for the defender or makes a four
+                wins = winningCell(board, attacker, row, col, block) != NO_CELL;
+                if (!wins && !winsAt(defender, block / this.size, block % this.size)) {
+                    play(board, defender, block / this.size, block % this.size);
+                    int counter = winningCell(board, defender, block / this.size, block % this.size, NO_CELL);
+                    if (counter == NO_CELL) {
+                        wins = vcf(board, attacker, defender, depth - 1);
+                    }
+                    undo(board, defender, block / this.size, block % this.size);
+                }
+            }
+            undo(board, attacker, row, col);
+            if (wins) {
+                if (depth == MAX_DEPTH) {
+                    this.rootCell = cell;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds an empty cell that wins for a player, on the lines through a cell the player just played.
+     * @param board - the board
+     * @param mark - the mark of the player
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @param skip - a cell not to return, or NO_CELL
+     * @return the winning cell, or NO_CELL if there is none.
+     */
+    private int winningCell(Board board, Mark mark, int row, int col, int skip) {
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            for (int step = 1 - this.winStreak; step < this.winStreak; step++) {
+                int cellRow = row + step * ROW_STEPS[direction];
+                int cellCol = col + step * COL_STEPS[direction];
+                if (cellRow < 0 || cellRow >= this.size || cellCol < 0 || cellCol >= this.size ||
+                        cellRow * this.size + cellCol == skip ||
+                        board.getMark(cellRow, cellCol) != Mark.BLANK) {
+                    continue;
+                }
+                if (winsAt(mark, cellRow, cellCol)) {
+                    return cellRow * this.size + cellCol;
+                }
+            }
+        }
+        return NO_CELL;
+    }
+
+    /**
+     * Checks if a player wins by playing an empty cell.
+     * @param mark - the mark of the player
+     * @param row - the row of the cell
+     * @param col - the column of the cell
+     * @return true if the cell completes a segment of the player.
+     */
+    private boolean winsAt(Mark mark, int row, int col) {
+        this.segments.countPatterns(mark, row, col, this.histogram);
+        return this.histogram[this.winStreak - 1] > 0;
+    }
+
+    /**
+     * Plays a move of the search on the board and in the counters.
+     * @param board - the board
+     * @param mark - the mark
+     * @param row - the row
+     * @param col - the column
+     */
+    private void play(Board board, Mark mark, int row, int col) {
+        board.push(mark, row, col);
+        this.segments.place(mark, row, col);
+        addNear(row, col);
+    }
+
+    /**
+     * Takes back a move of the search.
+     * @param board - the board
+     * @param mark - the mark
+     * @param row - the row
+     * @param col - the column
+     */
+    private void undo(Board board, Mark mark, int row, int col) {
+        board.pop();
+        this.segments.remove(mark, row, col);
+        removeNear(row, col);
+    }
+
+    /**
+     * Counts a new mark for the cells on its lines, up to win streak - 1 cells away, and adds the
+     cells it is the first mark of to the end of the list of cells near the marks.
+     * @param row - the row of the mark
+     * @param col - the column of the mark
+     */
+    private void addNear(int row, int col) {
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            for (int step = 1 - this.winStreak; step < this.winStreak; step++) {
+                int cellRow = row + step * ROW_STEPS[direction];
+                int cellCol = col + step * COL_STEPS[direction];
+                if (step == 0 || cellRow < 0 || cellRow >= this.size || cellCol < 0 || cellCol >= this.size) {
+                    continue;
+                }
+                int cell = cellRow * this.size + cellCol;
+                if (this.nearCount[cell]++ == 0) {
+                    if (this.nearCellCount == this.nearCells.length) {
+                        int[] bigger = new int[this.nearCells.length * 2];
+                        System.arraycopy(this.nearCells, 0, bigger, 0, this.nearCellCount);
+                        this.nearCells = bigger;
+                    }
+                    this.nearCells[this.nearCellCount++] = cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes back the last mark that addNear counted: goes over its cells in the opposite order, so the
+     cells it was the first mark of are the last cells of the list when they are removed.
+     * @param row - the row of the mark
+     * @param col - the column of the mark
+     */
+    private void removeNear(int row, int col) {
+        for (int direction = ROW_STEPS.length - 1; direction >= 0; direction--) {
+            for (int step = this.winStreak - 1; step > -this.winStreak; step--) {
+                int cellRow = row + step * ROW_STEPS[direction];
+                int cellCol = col + step * COL_STEPS[direction];
+                if (step == 0 || cellRow < 0 || cellRow >= this.size || cellCol < 0 || cellCol >= this.size) {
+                    continue;
+                }
+                if (--this.nearCount[cellRow * this.size + cellCol] == 0) {
+                    this.nearCellCount--;
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
-
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class Tournament {
     private static final String HUMAN_PLAYER = "human";
-    private static final String WHATEVER_PLAYER = "whatever";
-    private static final String CLEVER_PLAYER = "clever";
-    private static final String GENIUS_PLAYER = "genius";
     private static final String CONSOLE_RENDERER = "console";
     private static final String NONE_RENDERER = "none";
+    private static final String DIFF_RENDERER = "diff";
 
     private static final int ROUNDS_NUMBER_IND = 0;
     private static final int BOARD_SIZE_IND = 1;
@@ -14,54 +24,135 @@ public class Tournament {
     private static final int RENDERER_NAME_IND = 3;
     private static final int FIRST_PLAYER_IND = 4;
     private static final int SECOND_PLAYER_IND = 5;
+    private static final int FIRST_OPTION_IND = 6;
+    private static final String THREADS_OPTION = "--threads";
+    private static final String SEED_OPTION = "--seed";
+    private static final String RECORD_OPTION = "--record";
+    private static final String LATENCY_OPTION = "--latency";
+    private static final String MOVE_TIMEOUT_OPTION = "--move-timeout";
+    private static final String GAMES_OPTION = "--games";
+    private static final String SHARD_OPTION = "--shard";
+    private static final String SHARD_FILE_OPTION = "--shard-file";
+    private static final String SHARD_RUN_OPTION = "--shard-run";
+    private static final String SHARD_SEPARATOR = "/";
+    private static final int SHARD_PARTS = 2;
+    private static final String DEFAULT_SHARD_FILE = "shards.bin";
+    private static final String RECORD_ERROR = "Could not write the game record file: ";
+    private static final String SHARD_ERROR = "Could not open the shard file: ";
+    private static final String SHARD_USAGE = "Usage: --shard i/N --shard-run ID, with 0 <= i < N";
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
     private static final int TWO_PLAYERS = 2;
+    private static final int RESULTS_LENGTH = 3;
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final double MEDIAN = 50;
+    private static final double P99 = 99;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double NANOS_PER_MILLI = 1e6;
     private final int rounds;
+    private int firstRound;
+    private int lastRound;
     private final Renderer renderer;
     private final Player firstPlayer;
     private final Player secondPlayer;
+    private boolean seeded = false;
+    private long seed;
+    private GameRecordWriter recorder;
+    private LatencyHistogram[] latencies;
+    private long moveTimeoutMillis;
+    private final AtomicIntegerArray forfeits = new AtomicIntegerArray(TWO_PLAYERS);
+    private ShardFile shardFile;
+    private int shard;
+    private long nextPublishNanos;
+
+    /**
+     * A constructor of a tournament whose rounds are played only by workers that build their own
+     players and renderers, such as the parallel tournament and the pairs of a league.
+     * @param rounds - A positive number of the rounds to play.
+     */
+    public Tournament(int rounds) {
+        this(rounds, null, null, null);
+    }
 
     /**
      * The constructor of the Tournament class.
      * @param rounds - A positive number of the rounds to play.
-     * @param renderer - The type of renderer to be used: [none, console].
+     * @param renderer - The type of renderer to be used: [none, console, diff].
      * @param player1 - The first Player.
      * @param player2 - The second Player.
      */
     public Tournament(int rounds, Renderer renderer, Player player1, Player player2) {
         this.rounds = rounds;
+        this.lastRound = rounds;
         this.renderer = renderer;
         this.firstPlayer = player1;
         this.secondPlayer = player2;
     }
 
     /**
-     * This static function checks if the players' names are legal, which means part of:
-     [human, clever, whatever, genius].
+     * This function makes the tournament reproducible: every round gets a random stream of its own,
+     derived from the seed and the index of the round, and its random players draw from it.
+     * @param seed - the seed of the tournament.
+     */
+    public void setSeed(long seed) {
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * This function makes every game of the tournament append itself to a game record file, where
+     the first player is player 0 and the second player is player 1.
+     * @param recorder - the writer of the file.
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * This function makes the tournament time every move and print the latency of each player with
+     the results.
+     */
+    public void measureLatency() {
+        this.latencies = new LatencyHistogram[]{new LatencyHistogram(), new LatencyHistogram()};
+    }
+
+    /**
+     * This function gives every move of the tournament a deadline, and a player that misses it loses
+     the round. The turn of such a player may go on running, so the player is replaced by a new one
+     of its type for the next rounds.
+     * @param moveTimeoutMillis - the time every move may take, in milliseconds.
+     */
+    public void setMoveTimeout(long moveTimeoutMillis) {
+        this.moveTimeoutMillis = moveTimeoutMillis;
+    }
+
+    /**
+     * This function makes the tournament one shard of a tournament that several processes play: it
+     only plays its part of the rounds, and counts its results in its slot of a shared file as it
+     plays, where a ShardCoordinator sums the results of all the shards.
+     * @param shardFile - the file of the results of the shards.
+     * @param shard - the index of the shard, from 0 to the number of shards of the file - 1.
+     * @param run - the id of the run, the same for all the shards and the coordinator.
+     */
+    public void setShard(ShardFile shardFile, int shard, long run) {
+        int shards = shardFile.getShards();
+        this.shardFile = shardFile;
+        this.shard = shard;
+        this.firstRound = (int) ((long) this.rounds * shard / shards);
+        this.lastRound = (int) ((long) this.rounds * (shard + 1) / shards);
+        shardFile.start(shard, run, this.lastRound - this.firstRound);
+        this.nextPublishNanos = System.nanoTime() + PUBLISH_INTERVAL_NANOS;
+    }
+
+    /**
+     * This static function checks if the players' names are legal, which means they are names of
+     players that PlayerFactory builds.
      * @param firstPlayerName - A string of the first player's name.
      * @param secondPlayerName - A string of the second player's name.
      * @return true if both are legal, false otherwise.
      */
     private static boolean checkPlayerNames(String firstPlayerName, String secondPlayerName) {
-        String[] legalNames = new String[]{HUMAN_PLAYER, CLEVER_PLAYER, WHATEVER_PLAYER, GENIUS_PLAYER};
-        boolean isFirstLegal = false, isSecondLegal = false;
-        // go through the legal players' names array and check if the given names appears.
-
-        for(String name: legalNames) {
-            if (name.equals(firstPlayerName.toLowerCase())) {
-                isFirstLegal = true;
-                break;
-            }
-        }
-        if (!isFirstLegal) {
-            return false;
-        }
-        for(String name: legalNames) {
-            if (name.equals(secondPlayerName.toLowerCase())) {
-                isSecondLegal = true;
-                break;
-            }
-        }
-        return isSecondLegal;
+        return PlayerFactory.isPlayerName(firstPlayerName) && PlayerFactory.isPlayerName(secondPlayerName);
     }
 
     /**
@@ -73,31 +164,390 @@ public class Tournament {
      */
 
     public void playTournament(int size, int winStreak, String playerName1, String playerName2) {
-        int[] resultsWinCounters = new int[TWO_PLAYERS];  // counts the players' victories
-        int tieCounter = 0;
+        int[] results = new int[RESULTS_LENGTH];  // counts the players' victories and the ties
         Player[] players = new Player[TWO_PLAYERS];
         players[0] = this.firstPlayer;
         players[1] = this.secondPlayer;
-        for (int i = 0; i < this.rounds; i++) {
-            // generates a new game with two players who play X and O alternately
-            Game game = new Game(players[i % TWO_PLAYERS], players[(i + 1) % TWO_PLAYERS]
-                    , size, winStreak, this.renderer);
-            // launch a new game
-            Mark gameResult = game.run();
-            // checks who won and adds the victories counter array or tie counter in case of a tie
-            if(gameResult.equals(Mark.X)) {
-                (resultsWinCounters[i % TWO_PLAYERS])++;
-            } else if(gameResult.equals(Mark.O)) {
-                    (resultsWinCounters[(i + 1) % TWO_PLAYERS])++;
-            } else {
-                    tieCounter++;
+        String[] playerNames = {playerName1, playerName2};
+        for (int i = this.firstRound; i < this.lastRound; i++) {
+            results[playRound(i, players, playerNames, size, winStreak, this.renderer)]++;
+        }
+        finishShard();
+        printResults(results, playerName1, playerName2);
+    }
+
+    /**
+     * This function makes the tournament with many games at once and prints the results of it. Every
+     game runs on a virtual thread of its own, which only waits while the turns of its players run
+     on virtual threads with the deadline of the moves, so thousands of games need no platform thread
+     each. Every game thread takes the next round to play when its game ends, with its own players
+     and renderer, so the players must not be human.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param rendererType - the type of renderer every game thread builds: [none, console, diff].
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - the name of the second player.
+     * @param games - the number of games to play at once.
+     */
+    public void playConcurrentTournament(int size, int winStreak, String rendererType,
+                                         String playerName1, String playerName2, int games) {
+        AtomicInteger nextRound = new AtomicInteger(this.firstRound);
+        List<Future<int[]>> gameThreads = new ArrayList<>(games);
+        int[] results = new int[RESULTS_LENGTH];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < games; i++) {
+                gameThreads.add(executor.submit(() -> playNextRounds(nextRound, size, winStreak,
+                        rendererType, playerName1, playerName2)));
+            }
+            for (Future<int[]> gameThread : gameThreads) {
+                int[] gameResults = gameThread.get();
+                for (int i = 0; i < RESULTS_LENGTH; i++) {
+                    results[i] += gameResults[i];
                 }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        finishShard();
+        printResults(results, playerName1, playerName2);
+    }
+
+    /**
+     * This function plays rounds one after the other with players and a renderer of the calling thread
+     only, taking the index of every round from a counter that other threads take from too, until
+     all the rounds of the tournament were taken.
+     * @param nextRound - the index of the next round that no thread took yet.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param rendererType - the type of renderer to build: [none, console, diff].
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - The name of the second player.
+     * @return the victories of each player and the ties in the rounds that were played.
+     */
+    private int[] playNextRounds(AtomicInteger nextRound, int size, int winStreak, String rendererType,
+                                 String playerName1, String playerName2) {
+        int[] results = new int[RESULTS_LENGTH];
+        PlayerFactory playerFactory = new PlayerFactory();
+        Player[] players = {playerFactory.buildPlayer(playerName1), playerFactory.buildPlayer(playerName2)};
+        String[] playerNames = {playerName1, playerName2};
+        Renderer renderer = new RendererFactory().buildRenderer(rendererType, size);
+        for (int round = nextRound.getAndIncrement(); round < this.lastRound;
+             round = nextRound.getAndIncrement()) {
+            results[playRound(round, players, playerNames, size, winStreak, renderer)]++;
+        }
+        return results;
+    }
+
+    /**
+     * This function makes the tournament on several threads and prints the results of it.
+     * The rounds are split between the workers of a fork-join pool, every worker builds its own
+     players and renderer and the victories are summed at the end. Each round keeps the X and O of
+     the sequential tournament, so the players must not be human.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param rendererType - the type of renderer every worker builds: [none, console, diff].
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - the name of the second player.
+     * @param threads - the number of threads to use.
+     */
+    public void playParallelTournament(int size, int winStreak, String rendererType,
+                                       String playerName1, String playerName2, int threads) {
+        // a few chunks per thread keep the workers busy when some rounds are longer than others
+        int threshold = Math.max(1, (this.lastRound - this.firstRound) / (threads * CHUNKS_PER_THREAD));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int[] results = pool.invoke(new RoundsTask(this, this.firstRound, this.lastRound, threshold, size,
+                    winStreak, rendererType, playerName1, playerName2));
+            finishShard();
+            printResults(results, playerName1, playerName2);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This function plays the rounds of a range one after the other with players and a renderer of
+     the calling thread only.
+     * @param fromRound - the index of the first round to play.
+     * @param toRound - the index after the last round to play.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param rendererType - the type of renderer to build: [none, console, diff].
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - The name of the second player.
+     * @return the victories of each player and the ties in the range.
+     */
+    int[] playRounds(int fromRound, int toRound, int size, int winStreak, String rendererType,
+                     String playerName1, String playerName2) {
+        PlayerFactory playerFactory = new PlayerFactory();
+        Player[] players = new Player[TWO_PLAYERS];
+        players[0] = playerFactory.buildPlayer(playerName1);
+        players[1] = playerFactory.buildPlayer(playerName2);
+        Renderer renderer = new RendererFactory().buildRenderer(rendererType, size);
+        return playRounds(fromRound, toRound, players, new String[]{playerName1, playerName2}, size,
+                winStreak, renderer);
+    }
+
+    /**
+     * This function plays the rounds of a range one after the other with the given players, which
+     must not be used by another thread at the same time.
+     * @param fromRound - the index of the first round to play.
+     * @param toRound - the index after the last round to play.
+     * @param players - the first and the second player.
+     * @param playerNames - the names of the first and the second player.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param renderer - the renderer of the games.
+     * @return the victories of each player and the ties in the range.
+     */
+    int[] playRounds(int fromRound, int toRound, Player[] players, String[] playerNames, int size,
+                     int winStreak, Renderer renderer) {
+        int[] results = new int[RESULTS_LENGTH];
+        for (int i = fromRound; i < toRound; i++) {
+            results[playRound(i, players, playerNames, size, winStreak, renderer)]++;
+        }
+        return results;
+    }
+
+    /**
+     * This function plays a single round of the tournament, where the players play X and O alternately
+     by the index of the round.
+     * A player that forfeits the round is replaced in the array by a new player of its name, since
+     its turn may still be running on its abandoned thread.
+     * @param round - the index of the round.
+     * @param players - the first and the second player.
+     * @param playerNames - the names of the first and the second player.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @param renderer - the renderer of the game.
+     * @return the index of the result to count: the first player, the second player or a tie.
+     */
+    int playRound(int round, Player[] players, String[] playerNames, int size, int winStreak,
+                  Renderer renderer) {
+        if (this.seeded) {
+            seedRound(players, this.seed, round);
+        }
+        // generates a new game with two players who play X and O alternately
+        Game game = new Game(players[round % TWO_PLAYERS], players[(round + 1) % TWO_PLAYERS]
+                , size, winStreak, renderer);
+        if (this.recorder != null) {
+            game.setRecorder(this.recorder, round % TWO_PLAYERS, (round + 1) % TWO_PLAYERS);
+        }
+        if (this.latencies != null) {
+            game.setLatencyHistograms(this.latencies[round % TWO_PLAYERS],
+                    this.latencies[(round + 1) % TWO_PLAYERS]);
         }
-        // prints the results of the tournament
+        game.setMoveTimeout(this.moveTimeoutMillis);
+        // launch a new game
+        Mark gameResult = game.run();
+        if (game.isForfeited()) {
+            // the loser is the player of the other mark
+            int loser = gameResult.equals(Mark.X) ? (round + 1) % TWO_PLAYERS : round % TWO_PLAYERS;
+            this.forfeits.incrementAndGet(loser);
+            players[loser] = new PlayerFactory().buildPlayer(playerNames[loser]);
+            if (this.shardFile != null) {
+                this.shardFile.add(this.shard, ShardFile.FIRST_FORFEITS + loser, 1);
+            }
+        }
+        // checks who won, or a tie in case nobody did
+        int result = RoundsTask.TIES;
+        if(gameResult.equals(Mark.X)) {
+            result = round % TWO_PLAYERS;
+        } else if(gameResult.equals(Mark.O)) {
+            result = (round + 1) % TWO_PLAYERS;
+        }
+        if (this.shardFile != null) {
+            this.shardFile.add(this.shard, ShardFile.FIRST_RESULT + result, 1);
+            if (this.latencies != null && System.nanoTime() - this.nextPublishNanos >= 0) {
+                publishLatency();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This function writes the latency of the players to the slot of the shard, at most once every
+     PUBLISH_INTERVAL_NANOS while the rounds are played.
+     */
+    private synchronized void publishLatency() {
+        long[] snapshot = new long[LatencyHistogram.SNAPSHOT_LENGTH];
+        for (int i = 0; i < TWO_PLAYERS; i++) {
+            this.latencies[i].copyTo(snapshot);
+            this.shardFile.writeLatency(this.shard, i, snapshot);
+        }
+        this.nextPublishNanos = System.nanoTime() + PUBLISH_INTERVAL_NANOS;
+    }
+
+    /**
+     * This function writes the last latency of the players to the slot of the shard, if the tournament
+     is a shard, and marks the shard as done.
+     */
+    private void finishShard() {
+        if (this.shardFile == null) {
+            return;
+        }
+        if (this.latencies != null) {
+            publishLatency();
+        }
+        this.shardFile.finish(this.shard);
+    }
+
+    /**
+     * This function gives the random players of a round their random streams. The stream of a round
+     depends only on the seed and the index of the round, and each player gets a split of it.
+     * @param players - the first and the second player.
+     * @param seed - the seed of the tournament.
+     * @param round - the index of the round.
+     */
+    private static void seedRound(Player[] players, long seed, int round) {
+        SplittableRandom roundRandom = new SplittableRandom(mix(seed + GOLDEN_GAMMA * (round + 1)));
+        for (Player player : players) {
+            SplittableRandom playerRandom = roundRandom.split();
+            if (player instanceof SeededPlayer) {
+                ((SeededPlayer) player).setRandom(playerRandom);
+            }
+        }
+    }
+
+    /**
+     * This function scrambles a number, so that the seeds of consecutive rounds are far apart
+     (the finalizer of SplitMix64).
+     * @param value - the number to scramble.
+     * @return the scrambled number.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * This function prints the results of the tournament.
+     * @param results - the victories of the first and the second player and the ties.
+     * @param playerName1 - The name of the first player.
+     * @param playerName2 - the name of the second player.
+     */
+    private void printResults(int[] results, String playerName1, String playerName2) {
         System.out.println("######### Results #########");
-        System.out.println("Player 1, " + playerName1 + " won: " + resultsWinCounters[0] + " rounds");
-        System.out.println("Player 2, " + playerName2 + " won: " + resultsWinCounters[1] + " rounds");
-        System.out.println("Ties: " + tieCounter);
+        System.out.println("Player 1, " + playerName1 + " won: " +
+                results[RoundsTask.FIRST_PLAYER_WINS] + " rounds");
+        System.out.println("Player 2, " + playerName2 + " won: " +
+                results[RoundsTask.SECOND_PLAYER_WINS] + " rounds");
+        System.out.println("Ties: " + results[RoundsTask.TIES]);
+        if (AlphaBetaPlayer.getSearchedNodes() > 0) {
+            System.out.println("Alpha-beta search: " + AlphaBetaPlayer.getSearchedNodes() + " nodes, " +
+                    AlphaBetaPlayer.getNodesPerSecond() + " nodes/sec");
+        }
+        if (this.moveTimeoutMillis > 0) {
+            System.out.println("Forfeits: player 1 " + this.forfeits.get(0) + ", player 2 " +
+                    this.forfeits.get(1));
+        }
+        if (this.latencies != null) {
+            String[] names = {playerName1, playerName2};
+            for (int i = 0; i < TWO_PLAYERS; i++) {
+                LatencyHistogram latency = this.latencies[i];
+                System.out.printf("Player %d, %s moves: %d, p50 %.1f us, p99 %.1f us, max %.1f us, " +
+                                "CPU %.1f ms%n", i + 1, names[i], latency.getMoveCount(),
+                        latency.getPercentile(MEDIAN) / NANOS_PER_MICRO,
+                        latency.getPercentile(P99) / NANOS_PER_MICRO,
+                        latency.getMaxNanos() / NANOS_PER_MICRO, latency.getCpuNanos() / NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    /**
+     * This function reads the number of threads from the optional arguments that follow the players'
+     names: "--threads N" asks for N threads and N = 0 for all the available processors.
+     * @param args - the arguments of the main method
+     * @return the number of threads, 1 when no parallel tournament was asked for.
+     */
+    private static int parseThreads(String[] args) {
+        int index = findOption(args, THREADS_OPTION);
+        if (index < 0) {
+            return 1;
+        }
+        int threads = Integer.parseInt(args[index]);
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * This function reads the number of games to play at once from the optional arguments that follow
+     the players' names: "--games N" asks for N games, each on a virtual thread. It is used only with
+     a move timeout.
+     * @param args - the arguments of the main method
+     * @param threads - the number of threads that was asked for, which is the default.
+     * @return the number of games.
+     */
+    private static int parseGames(String[] args, int threads) {
+        int index = findOption(args, GAMES_OPTION);
+        return index < 0 ? threads : Math.max(1, Integer.parseInt(args[index]));
+    }
+
+    /**
+     * This function opens the shard file if the tournament is a shard: "--shard i/N" plays the i-th of
+     N parts of the rounds, "--shard-run ID" is the id of the run, which the coordinator is given too,
+     and "--shard-file PATH" is the file of the results, shards.bin by default.
+     * @param args - the arguments of the main method
+     * @param tournament - the tournament to make a shard.
+     * @return the shard file, or null if the tournament is not a shard.
+     * @throws IOException if the file can not be opened.
+     * @throws IllegalArgumentException if the shard or the run is missing or not valid.
+     */
+    private static ShardFile openShardFile(String[] args, Tournament tournament) throws IOException {
+        int index = findOption(args, SHARD_OPTION);
+        if (index < 0) {
+            return null;
+        }
+        String[] shard = args[index].split(SHARD_SEPARATOR);
+        int runIndex = findOption(args, SHARD_RUN_OPTION);
+        if (shard.length != SHARD_PARTS || runIndex < 0) {
+            throw new IllegalArgumentException(SHARD_USAGE);
+        }
+        int shardIndex = Integer.parseInt(shard[0]);
+        int shards = Integer.parseInt(shard[1]);
+        if (shardIndex < 0 || shardIndex >= shards) {
+            throw new IllegalArgumentException(SHARD_USAGE);
+        }
+        long run = Long.parseLong(args[runIndex]);
+        int fileIndex = findOption(args, SHARD_FILE_OPTION);
+        ShardFile shardFile = new ShardFile(Paths.get(fileIndex < 0 ? DEFAULT_SHARD_FILE : args[fileIndex]),
+                shards);
+        tournament.setShard(shardFile, shardIndex, run);
+        return shardFile;
+    }
+
+    /**
+     * This function checks if an option without a value was given among the optional arguments that
+     follow the players' names.
+     * @param args - the arguments of the main method
+     * @param flag - the name of the option, such as "--latency"
+     * @return true if the option was given.
+     */
+    private static boolean hasFlag(String[] args, String flag) {
+        for (int i = FIRST_OPTION_IND; i < args.length; i++) {
+            if (args[i].equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function looks for an option among the optional arguments that follow the players' names.
+     * @param args - the arguments of the main method
+     * @param option - the name of the option, such as "--seed"
+     * @return the index of the value of the option, or -1 if the option was not given.
+     */
+    private static int findOption(String[] args, String option) {
+        for (int i = FIRST_OPTION_IND; i < args.length - 1; i++) {
+            if (args[i].equals(option)) {
+                return i + 1;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -118,7 +568,8 @@ public class Tournament {
         Player[] players = new Player[TWO_PLAYERS];
         // checks if renderer type is legal
         if(!rendererType.equalsIgnoreCase(CONSOLE_RENDERER) &&
-                !rendererType.equalsIgnoreCase(NONE_RENDERER)) {
+                !rendererType.equalsIgnoreCase(NONE_RENDERER) &&
+                !rendererType.equalsIgnoreCase(DIFF_RENDERER)) {
             System.out.println(Constants.UNKNOWN_RENDERER_NAME);
             return;
         }
@@ -132,7 +583,49 @@ public class Tournament {
         players[0] = new PlayerFactory().buildPlayer(firstPlayerName.toLowerCase());
         players[1] = new PlayerFactory().buildPlayer(secondPlayerName.toLowerCase());
         Tournament tournament = new Tournament(rounds, renderer, players[0], players[1]);
-        tournament.playTournament(boardSize, winStreak, firstPlayerName.toLowerCase()
-                , secondPlayerName.toLowerCase());
+        int seedIndex = findOption(args, SEED_OPTION);
+        if (seedIndex >= 0) {
+            tournament.setSeed(Long.parseLong(args[seedIndex]));
+        }
+        if (hasFlag(args, LATENCY_OPTION)) {
+            tournament.measureLatency();
+        }
+        int timeoutIndex = findOption(args, MOVE_TIMEOUT_OPTION);
+        if (timeoutIndex >= 0) {
+            tournament.setMoveTimeout(Long.parseLong(args[timeoutIndex]));
+        }
+        ShardFile shardFile;
+        try {
+            shardFile = openShardFile(args, tournament);
+        } catch (IOException e) {
+            System.out.println(SHARD_ERROR + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println(SHARD_USAGE);
+            return;
+        }
+        int recordIndex = findOption(args, RECORD_OPTION);
+        try (shardFile; GameRecordWriter recorder = recordIndex < 0 ? null : new GameRecordWriter(
+                Paths.get(args[recordIndex]), new String[]{firstPlayerName.toLowerCase(),
+                secondPlayerName.toLowerCase()})) {
+            tournament.setRecorder(recorder);
+            int threads = parseThreads(args);
+            // human players read the same keyboard, so they always play one round at a time
+            boolean human = firstPlayerName.equalsIgnoreCase(HUMAN_PLAYER) ||
+                    secondPlayerName.equalsIgnoreCase(HUMAN_PLAYER);
+            if (timeoutIndex >= 0 && !human) {
+                tournament.playConcurrentTournament(boardSize, winStreak, rendererType.toLowerCase(),
+                        firstPlayerName.toLowerCase(), secondPlayerName.toLowerCase(),
+                        parseGames(args, threads));
+            } else if (threads > 1 && !human) {
+                tournament.playParallelTournament(boardSize, winStreak, rendererType.toLowerCase(),
+                        firstPlayerName.toLowerCase(), secondPlayerName.toLowerCase(), threads);
+            } else {
+                tournament.playTournament(boardSize, winStreak, firstPlayerName.toLowerCase()
+                        , secondPlayerName.toLowerCase());
+            }
+        } catch (IOException e) {
+            System.out.println(RECORD_ERROR + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,75 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The TranspositionTable class is a hash table of search results keyed by PositionKey keys, that
+ several players may read and write at once.
+ * Every slot holds a key and a 64 bit entry, and the key is stored xored with the entry, so an entry
+ that was torn by two threads writing the slot at once does not match its key and is ignored,
+ without any locking.
+ * shared() gives one table for every size and win streak, so all the games of a tournament (and
+ all the rounds of it) use the results of the games before them.
+ */
+public class TranspositionTable {
+    /**
+     * The TranspositionTable constants
+     */
+    static final long NO_ENTRY = 0;
+    private static final int SHARED_BITS = 20;
+    private static final Map<String, TranspositionTable> sharedTables = new ConcurrentHashMap<>();
+    private final int bits;
+    private final long[] keys;
+    private final long[] entries;
+
+    /**
+     * The constructor of TranspositionTable.
+     * @param bits - the table has 2^bits slots.
+     */
+    public TranspositionTable(int bits) {
+        this.bits = bits;
+        this.keys = new long[1 << bits];
+        this.entries = new long[1 << bits];
+    }
+
+    /**
+     * Returns the table shared by everyone that searches boards of the given size and win streak.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @return the shared table.
+     */
+    public static TranspositionTable shared(int size, int winStreak) {
+        return sharedTables.computeIfAbsent(size + "x" + winStreak,
+                name -> new TranspositionTable(SHARED_BITS));
+    }
+
+    /**
+     * Returns the slot of a key.
+     * @param key - the key
+     * @return the index in the table
+     */
+    private int index(long key) {
+        return (int) (key ^ (key >>> this.bits)) & (this.keys.length - 1);
+    }
+
+    /**
+     * Returns the entry of a key.
+     * @param key - the key
+     * @return the entry, or NO_ENTRY if the key is not in the table.
+     */
+    public long get(long key) {
+        int index = index(key);
+        long entry = this.entries[index];
+        return (this.keys[index] ^ entry) == key ? entry : NO_ENTRY;
+    }
+
+    /**
+     * Stores the entry of a key, replacing whatever was in its slot.
+     * @param key - the key
+     * @param entry - the entry, not NO_ENTRY
+     */
+    public void put(long key, long entry) {
+        int index = index(key);
+        this.entries[index] = entry;
+        this.keys[index] = key ^ entry;
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ValueTable class maps positions, by their PositionKey keys, to the value a LearnedPlayer gives
+ them. Many training threads read and update it at once without locks: a key claims its slot with a
+ compare and set, and the value of a slot is a float written over its bits, so a value that two
+ threads update at once keeps one of the two updates. Every value starts as DEFAULT_VALUE, so a
+ reader or a checkpoint that finds a key whose first value is not written yet sees the default.
+ * The table uses open addressing with linear probing and never grows. When it is full, positions it
+ has not seen keep the default value, and the updates it drops are counted, so a trainer can show
+ that the table is too small.
+ * A table is saved to and loaded from a compact checkpoint file: a header with the board it is for
+ and the number of entries, and then every key with its value.
+ */
+public class ValueTable {
+    /**
+     * The ValueTable constants
+     */
+    static final float DEFAULT_VALUE = 0.5f;
+    private static final int MAGIC = 0x54545654;
+    private static final long EMPTY = 0;
+    private static final long ZERO_KEY = 1;   // the key 0 marks an empty slot, so it is stored as 1
+    private static final int MAX_PROBES = 64;
+    private static final int MIN_BITS = 10;
+    private static final int COUNT_OFFSET = 3 * Integer.BYTES;
+    private final int size;
+    private final int winStreak;
+    private final AtomicLongArray keys;
+    private final AtomicIntegerArray values;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * The constructor of ValueTable, for an empty table.
+     * @param size - the size of the board of the positions.
+     * @param winStreak - the win streak of the games.
+     * @param bits - the table has 2^bits slots.
+     */
+    public ValueTable(int size, int winStreak, int bits) {
+        this.size = size;
+        this.winStreak = winStreak;
+        this.keys = new AtomicLongArray(1 << bits);
+        this.values = new AtomicIntegerArray(1 << bits);
+        int defaultBits = Float.floatToRawIntBits(DEFAULT_VALUE);
+        for (int i = 0; i < this.values.length(); i++) {
+            this.values.setPlain(i, defaultBits);
+        }
+    }
+
+    /**
+     * Returns the name of the checkpoint file of a board.
+     * @param size - the size of the board.
+     * @param winStreak - the win streak.
+     * @return the name of the file.
+     */
+    static String fileName(int size, int winStreak) {
+        return "learned_" + size + "_" + winStreak + ".bin";
+    }
+
+    /**
+     * Returns the first slot a key is looked for in.
+     * @param key - the key, not EMPTY
+     * @return the index of the slot
+     */
+    private int slot(long key) {
+        return (int) (key ^ (key >>> Integer.SIZE)) & (this.keys.length() - 1);
+    }
+
+    /**
+     * Returns the value of a position.
+     * @param key - the key of the position.
+     * @return the value, or DEFAULT_VALUE if the position is not in the table.
+     */
+    public float get(long key) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        int mask = this.keys.length() - 1;
+        int i = slot(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+            long slotKey = this.keys.get(i);
+            if (slotKey == key) {
+                return Float.intBitsToFloat(this.values.getPlain(i));
+            }
+            if (slotKey == EMPTY) {
+                break;
+            }
+        }
+        return DEFAULT_VALUE;
+    }
+
+    /**
+     * Sets the value of a position, adding the position if it is not in the table and there is room.
+     * @param key - the key of the position.
+     * @param value - the value.
+     */
+    public void put(long key, float value) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        int mask = this.keys.length() - 1;
+        int i = slot(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+            long slotKey = this.keys.get(i);
+            if (slotKey == EMPTY) {
+                if (!this.keys.compareAndSet(i, EMPTY, key)) {
+                    slotKey = this.keys.get(i);   // another thread took the slot first
+                } else {
+                    slotKey = key;
+                }
+            }
+            if (slotKey == key) {
+                this.values.setPlain(i, Float.floatToRawIntBits(value));
+                return;
+            }
+        }
+        this.dropped.increment();
+    }
+
+    /**
+     * Returns the number of updates that were dropped because the table had no room for the position
+     within MAX_PROBES slots.
+     * @return the number of dropped updates.
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Returns the number of positions in the table.
+     * @return the number of positions.
+     */
+    public int count() {
+        int count = 0;
+        for (int i = 0; i < this.keys.length(); i++) {
+            if (this.keys.get(i) != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the table to a checkpoint file. The file is written next to its place and then moved
+     over it, so a reader never sees half of a checkpoint. Training threads may go on updating the
+     table while it is saved.
+     * @param path - the file to write.
+     * @throws IOException if the file can not be written.
+     */
+    public void save(Path path) throws IOException {
+        Path temporary = Paths.get(path + ".tmp");
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(this.size);
+            out.writeInt(this.winStreak);
+            out.writeInt(0);   // the number of positions, written when it is known
+            for (int i = 0; i < this.keys.length(); i++) {
+                long key = this.keys.get(i);
+                if (key != EMPTY) {
+                    out.writeLong(key);
+                    out.writeFloat(Float.intBitsToFloat(this.values.getPlain(i)));
+                    written++;
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, written), COUNT_OFFSET);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a table from a checkpoint file.
+     * @param path - the file to read.
+     * @param minBits - the table has at least 2^minBits slots, and at least twice as many slots as
+     the file has positions.
+     * @return the table.
+     * @throws IOException if the file can not be read or is not a checkpoint.
+     */
+    public static ValueTable load(Path path, int minBits) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a value table");
+            }
+            int size = in.readInt();
+            int winStreak = in.readInt();
+            int count = in.readInt();
+            int bits = Math.max(Math.max(minBits, MIN_BITS),
+                    Integer.SIZE - Integer.numberOfLeadingZeros(count) + 1);
+            ValueTable table = new ValueTable(size, winStreak, bits);
+            for (int i = 0; i < count; i++) {
+                table.put(in.readLong(), in.readFloat());
+            }
+            return table;
+        }
+    }
+}
@@ -1,8 +1,10 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 /**
  * class WhateverPlayer represents the player that his every move is randomized.
  */
-public class WhateverPlayer implements Player {
+public class WhateverPlayer implements SeededPlayer {
+    private SplittableRandom random = new SplittableRandom();
+
     /**
      * An empty constructor for WhateverPlayer
      */
@@ -10,18 +12,24 @@ public class WhateverPlayer implements Player {
     }
 
     /**
-     * The playTurn function chooses a row and a column between [0,size - 1] randomly
-     and puts the mark of the chosen cell on the bard.
+     * The setRandom function replaces the random generator of the player.
+     * @param random - the random generator
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * The playTurn function chooses one of the empty cells of the board randomly
+     and puts the mark on the chosen cell.
      * @param board - the board
      * @param mark - the mark to put on the board
      */
     public void playTurn(Board board, Mark mark) {
-        boolean playedTurn = false;
-        while(!playedTurn) {
-            Random rand = new Random();
-            int randomRow = rand.nextInt(board.getSize());
-            int randomCol = rand.nextInt(board.getSize());
-            playedTurn = board.putMark(mark, randomRow, randomCol);
+        if (board.getFreeCount() == 0) {
+            return;
         }
+        int cell = board.getFreeCell(this.random.nextInt(board.getFreeCount()));
+        board.putMark(mark, cell / board.getSize(), cell % board.getSize());
     }
 }
@@ -3,8 +3,6 @@ package ascii_art;
 import image.Image;
 import image.ImageManipulator;
 import image_char_matching.SubImgCharMatcher;
-import java.awt.*;
-import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -16,14 +14,11 @@ public class AsciiArtAlgorithm {
     private static final SubImgCharMatcher subImgCharMatcher =
             new SubImgCharMatcher(Constants.DEFAULT_CHARSET);
     private static HashSet<Character> previousCharSet = new HashSet<>(Constants.DEFAULT_CHARSET_ARR);
-    private static final HashMap<Color[][], Double> subImgBrightnessMap = new HashMap<>();
     private final Image image;
     private final int resolution;
     private static int previousResolution = 0;
     private static Image previousImage = null;
-    private static Color[][][][] dividedImage = null;
-    private static int maxSubImgColIndex = 0;
-    private static int maxSubImgRowIndex = 0;
+    private static double[][] subImgBrightness = null;
 
 
     /**
@@ -66,27 +61,16 @@ public class AsciiArtAlgorithm {
      */
     public char [][] run() {
         if (!isSameImgAndRes()) {
-            Color[][] colorArrOfImage = ImageManipulator.padImage(image);
-            dividedImage = ImageManipulator.divideImageToSubImages(colorArrOfImage, resolution);
-            maxSubImgColIndex = dividedImage[0].length;
-            maxSubImgRowIndex = dividedImage.length;
+            Image paddedImage = ImageManipulator.padImage(image);
+            subImgBrightness = ImageManipulator.calcSubImagesBrightness(paddedImage, resolution);
         }
-        char [][] dividedImageCharArr = new char[maxSubImgColIndex][maxSubImgRowIndex];
-        double subImageBrightness;
-        char subImageChar;
+        char [][] dividedImageCharArr = new char[subImgBrightness.length][];
 
-        for (int i = 0; i < maxSubImgRowIndex; i++) {
-            for (int j = 0; j < maxSubImgColIndex; j++) {
-                if (isSameImgAndRes()) {
-                    subImageBrightness = subImgBrightnessMap.get(dividedImage[i][j]);
-                    subImageChar = subImgCharMatcher.getCharByImageBrightness(subImageBrightness);
-                }
-                else {
-                    subImageBrightness = ImageManipulator.calcImgBrightness(dividedImage[i][j]);
-                    subImageChar = subImgCharMatcher.getCharByImageBrightness(subImageBrightness);
-                    subImgBrightnessMap.put(dividedImage[i][j], subImageBrightness);
-                }
-                dividedImageCharArr[i][j] = subImageChar;
+        for (int i = 0; i < subImgBrightness.length; i++) {
+            dividedImageCharArr[i] = new char[subImgBrightness[i].length];
+            for (int j = 0; j < subImgBrightness[i].length; j++) {
+                dividedImageCharArr[i][j] =
+                        subImgCharMatcher.getCharByImageBrightness(subImgBrightness[i][j]);
             }
         }
         previousImage = image;
@@ -8,7 +8,6 @@ import exceptions.InvalidInputException;
 import image.Image;
 import image.ImageManipulator;
 
-import java.awt.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
@@ -44,11 +43,11 @@ public class Shell {
     }
 
     /**
-     * Pads the provided image and returns the padded image as a 2D Color array.
+     * Pads the provided image and returns the padded image.
      * @param image The image to pad.
-     * @return The padded image as a 2D Color array.
+     * @return The padded image.
      */
-    private static Color[][] padImage(Image image) {
+    private static Image padImage(Image image) {
         return ImageManipulator.padImage(image);
     }
 
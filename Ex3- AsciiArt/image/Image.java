@@ -3,16 +3,24 @@ package image;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
 
 /**
  * A package-private class of the package image.
+ * The pixels are kept as packed ARGB ints in a single row-major array, so a large image costs four
+ * bytes per pixel and no object per pixel. Color objects are only made by getPixel.
  * @author Dan Nirel
  */
 public class Image {
+    private static final int OPAQUE = 0xFF000000;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int COLOR_MASK = 0xFF;
+    private static final int RGB_BYTES = 3;
 
-    private final Color[][] pixelArray;
+    private final int[] pixels;
     private final int width;
     private final int height;
 
@@ -27,11 +35,43 @@ public class Image {
         height = im.getHeight();
 
 
-        pixelArray = new Color[height][width];
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                pixelArray[i][j]=new Color(im.getRGB(j, i));
-            }
+        pixels = readPixels(im);
+    }
+
+    /**
+     * Reads all the pixels of a BufferedImage as packed ARGB values.
+     * The common types that ImageIO decodes to (packed int pixels, and the BGR bytes of a JPEG) are
+     * copied out of the raster in one call and converted in a tight loop; any other type goes
+     * through a single bulk getRGB call, which converts each pixel with the image's color model.
+     * @param im the decoded image
+     * @return the ARGB value of every pixel, row after row
+     */
+    private static int[] readPixels(BufferedImage im) {
+        int width = im.getWidth();
+        int height = im.getHeight();
+        Raster raster = im.getRaster();
+        boolean sRGB = im.getColorModel().getColorSpace().isCS_sRGB();
+        switch (sRGB ? im.getType() : BufferedImage.TYPE_CUSTOM) {
+            case BufferedImage.TYPE_INT_ARGB:
+                return (int[]) raster.getDataElements(0, 0, width, height, new int[width * height]);
+            case BufferedImage.TYPE_INT_RGB:
+                int[] rgb = (int[]) raster.getDataElements(0, 0, width, height, new int[width * height]);
+                for (int i = 0; i < rgb.length; i++) {
+                    rgb[i] |= OPAQUE;
+                }
+                return rgb;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                // the data elements come in band order, red first, whatever the order in memory
+                byte[] bytes = (byte[]) raster.getDataElements(0, 0, width, height,
+                        new byte[width * height * RGB_BYTES]);
+                int[] packed = new int[width * height];
+                for (int i = 0, b = 0; i < packed.length; i++, b += RGB_BYTES) {
+                    packed[i] = OPAQUE | (bytes[b] & COLOR_MASK) << RED_SHIFT |
+                            (bytes[b + 1] & COLOR_MASK) << GREEN_SHIFT | (bytes[b + 2] & COLOR_MASK);
+                }
+                return packed;
+            default:
+                return im.getRGB(0, 0, width, height, null, 0, width);
         }
     }
 
@@ -42,7 +82,22 @@ public class Image {
      * @param height     the height of the image
      */
     public Image(Color[][] pixelArray, int width, int height) {
-        this.pixelArray = pixelArray;
+        this(new int[width * height], width, height);
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                pixels[i * width + j] = pixelArray[i][j].getRGB();
+            }
+        }
+    }
+
+    /**
+     * Constructs an Image object from packed pixels.
+     * @param pixels the ARGB value of every pixel, row after row; the image keeps the array
+     * @param width  the width of the image
+     * @param height the height of the image
+     */
+    public Image(int[] pixels, int width, int height) {
+        this.pixels = pixels;
         this.width = width;
         this.height = height;
     }
@@ -70,7 +125,25 @@ public class Image {
      * @return the Color of the pixel
      */
     public Color getPixel(int x, int y) {
-        return pixelArray[x][y];
+        return new Color(getRGB(x, y));
+    }
+
+    /**
+     * Returns the packed ARGB value of the pixel at the specified coordinates.
+     * @param x the x-coordinate (row) of the pixel
+     * @param y the y-coordinate (column) of the pixel
+     * @return the ARGB value of the pixel
+     */
+    public int getRGB(int x, int y) {
+        return pixels[x * width + y];
+    }
+
+    /**
+     * Returns the packed pixels of the image, row after row. The array is not copied.
+     * @return the ARGB value of every pixel
+     */
+    int[] getPixels() {
+        return pixels;
     }
 
     /**
@@ -78,15 +151,10 @@ public class Image {
      * @param fileName the name of the output file
      */
     public void saveImage(String fileName){
-        // Initialize BufferedImage, assuming Color[][] is already properly populated.
-        BufferedImage bufferedImage = new BufferedImage(pixelArray[0].length, pixelArray.length,
-                BufferedImage.TYPE_INT_RGB);
-        // Set each pixel of the BufferedImage to the color from the Color[][].
-        for (int x = 0; x < pixelArray.length; x++) {
-            for (int y = 0; y < pixelArray[x].length; y++) {
-                bufferedImage.setRGB(y, x, pixelArray[x][y].getRGB());
-            }
-        }
+        // Initialize BufferedImage with the size of the image.
+        BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        // Copy the packed colors into the raster at once; the alpha bits are ignored by TYPE_INT_RGB.
+        bufferedImage.getRaster().setDataElements(0, 0, width, height, pixels);
         File outputfile = new File(fileName+".jpeg");
         try {
             ImageIO.write(bufferedImage, "jpeg", outputfile);
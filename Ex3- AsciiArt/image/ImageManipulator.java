@@ -2,12 +2,17 @@ package image;
 
 import ascii_art.Constants;
 
-import java.awt.*;
+import java.util.Arrays;
 
 /**
  * Provides methods for manipulating images.
  */
 public class ImageManipulator {
+    private static final int WHITE_RGB = 0xFFFFFFFF;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int COLOR_MASK = 0xFF;
+
     /**
      * Default constructor for ImageManipulator class.
      */
@@ -32,91 +37,55 @@ public class ImageManipulator {
     /**
      * Pads an image to the closest power of two dimensions.
      * @param image The input image.
-     * @return The padded image as a 2D Color array.
+     * @return The padded image, with the input image in its center and white pixels around it.
      */
-    public static Color[][] padImage(Image image) {
+    public static Image padImage(Image image) {
         int newHeight = findClosestPowerOfTwo(image.getHeight());
         int newWidth = findClosestPowerOfTwo(image.getWidth());
         int heightPadding = newHeight - image.getHeight();
         int widthPadding = newWidth - image.getWidth();
-        Color[][] paddedImg = new Color[newHeight][newWidth];
+        int[] paddedImg = new int[newHeight * newWidth];
         // initialize paddedImg with white pixels
-        for (int i = 0; i < newHeight; i++) {
-            for (int j = 0; j < newWidth; j++) {
-                paddedImg[i][j] = Color.WHITE;
-            }
-        }
-        // copy the previous image to the current one
+        Arrays.fill(paddedImg, WHITE_RGB);
+        // copy the rows of the previous image to the current one
+        int[] pixels = image.getPixels();
         for (int i = 0; i < image.getHeight(); i++) {
-            for (int j = 0; j < image.getWidth(); j++) {
-                paddedImg[i + (heightPadding / 2)][j + (widthPadding / 2)] = image.getPixel(i,j);
-            }
+            System.arraycopy(pixels, i * image.getWidth(),
+                    paddedImg, (i + heightPadding / 2) * newWidth + widthPadding / 2, image.getWidth());
         }
-        return paddedImg;
-    }
-    /**
-     * Divides an image into sub-images based on a specified resolution.
-     * @param colorArr The input image as a 2D Color array.
-     * @param resolution The resolution for dividing the image.
-     * @return The divided image as a 4D Color array.
-     */
-    public static Color[][][][] divideImageToSubImages(Color[][] colorArr, int resolution) {
-        int imgHeight = colorArr.length;
-        int imgWidth = colorArr[0].length;
-        int subImageSize = imgWidth / resolution;
-        int maxSubImgColIndex = resolution;
-        int maxSubImgRowIndex = imgHeight / subImageSize;
-
-        Color[][][][] res = new Color[maxSubImgColIndex][maxSubImgRowIndex][subImageSize][subImageSize];
-
-        for (int subImgRowIndex = 0; subImgRowIndex < maxSubImgRowIndex; subImgRowIndex++) {
-            for (int subImgColIndex = 0; subImgColIndex < maxSubImgColIndex; subImgColIndex++) {
-                // create subImg
-                res[subImgRowIndex][subImgColIndex] =
-                        fillSubImg(colorArr, subImageSize, subImgRowIndex, subImgColIndex);
-            }
-        }
-        return res;
+        return new Image(paddedImg, newWidth, newHeight);
     }
 
     /**
-     * Fills a sub-image with pixels from a larger image.
-     * @param colorArr The input image as a 2D Color array.
-     * @param subImageSize The size of the sub-image.
-     * @param subImgRowIndex The row index of the sub-image.
-     * @param subImgColIndex The column index of the sub-image.
-     * @return The filled sub-image as a 2D Color array.
+     * Divides a padded image into square sub-images based on a specified resolution, and calculates
+     * the brightness of each of them in a single pass over the pixels.
+     * @param paddedImage The input image, with dimensions that are powers of two.
+     * @param resolution The number of sub-images in a row of the image.
+     * @return The brightness of the sub-images, by their row and column in the image.
      */
-    private static Color[][] fillSubImg(Color[][] colorArr, int subImageSize,
-                                        int subImgRowIndex, int subImgColIndex) {
-        Color[][] subImg = new Color[subImageSize][subImageSize];
-        for (int rowIndex = 0; rowIndex < subImageSize; rowIndex++) {
-            for (int colIndex = 0; colIndex < subImageSize; colIndex++) {
-                subImg[rowIndex][colIndex] =
-                        colorArr[rowIndex + subImgRowIndex * subImageSize]
-                                [colIndex + subImgColIndex * subImageSize];
+    public static double[][] calcSubImagesBrightness(Image paddedImage, int resolution) {
+        int imgWidth = paddedImage.getWidth();
+        int subImageSize = imgWidth / resolution;
+        int maxSubImgRowIndex = paddedImage.getHeight() / subImageSize;
+        int[] pixels = paddedImage.getPixels();
+        double[][] res = new double[maxSubImgRowIndex][resolution];
 
+        for (int i = 0; i < maxSubImgRowIndex * subImageSize; i++) {
+            double[] subImgRow = res[i / subImageSize];
+            int rowStart = i * imgWidth;
+            for (int j = 0; j < imgWidth; j++) {
+                int rgb = pixels[rowStart + j];
+                subImgRow[j / subImageSize] += ((rgb >> RED_SHIFT) & COLOR_MASK) * Constants.RED_FACTOR +
+                        ((rgb >> GREEN_SHIFT) & COLOR_MASK) * Constants.GREEN_FACTOR +
+                        (rgb & COLOR_MASK) * Constants.BLUE_FACTOR;
             }
         }
-        return subImg;
-    }
-
-    /**
-     * Calculates the brightness of an image.
-     * @param colorArr The input image as a 2D Color array.
-     * @return The brightness value of the image.
-     */
-    public static double calcImgBrightness(Color[][] colorArr) {
-        int imgHeight = colorArr.length;
-        int imgWidth = colorArr[0].length;
-        double greyColorCounter = 0;
-        for (int i = 0; i < imgHeight; i++) {
-            for (int j = 0; j < imgWidth; j++) {
-                greyColorCounter += colorArr[i][j].getRed() * Constants.RED_FACTOR +
-                        colorArr[i][j].getGreen() * Constants.GREEN_FACTOR +
-                        colorArr[i][j].getBlue() * Constants.BLUE_FACTOR;
+        double subImgMaxGrey = Constants.MAX_RGB_RATE * subImageSize * subImageSize;
+        for (double[] subImgRow : res) {
+            for (int j = 0; j < resolution; j++) {
+                subImgRow[j] /= subImgMaxGrey;
             }
         }
-        return greyColorCounter / (Constants.MAX_RGB_RATE * imgHeight * imgWidth);
+        return res;
     }
 }